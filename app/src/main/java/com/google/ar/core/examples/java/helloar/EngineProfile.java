@@ -0,0 +1,62 @@
+package com.google.ar.core.examples.java.helloar;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+import com.google.ar.core.examples.java.vision.EngineCalibrator;
+import com.google.ar.core.examples.java.vision.EngineConfig;
+import java.nio.ByteBuffer;
+
+/**
+ * Chooses how to run the model on this device, calibrating once and remembering the winner.
+ *
+ * <p>The profile is keyed by device and model hash, so a new phone, OS update or model file
+ * triggers a fresh calibration, and every other launch builds the saved configuration directly.
+ */
+public class EngineProfile {
+    private static final String TAG = "EngineProfile";
+    public static final String SHARED_PREFERENCES_ID = "SHARED_PREFERENCES_ENGINE_PROFILE";
+
+    private final SharedPreferences sharedPreferences;
+
+    public EngineProfile(Context context) {
+        sharedPreferences = context.getSharedPreferences(SHARED_PREFERENCES_ID, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Builds the engine for {@code model}: from the saved profile if there is one, otherwise (or
+     * when {@code forceCalibration}) by calibrating first and saving the winner.
+     */
+    public TfLiteEngine createEngine(ByteBuffer model, boolean forceCalibration) {
+        String key = profileKey(model);
+
+        // 1. A saved winner for this device and model
+        EngineConfig saved = forceCalibration ? null : EngineConfig.parse(sharedPreferences.getString(key, null));
+        if (saved != null) {
+            try {
+                Log.d(TAG, "Using saved engine profile " + saved);
+                return TfLiteEngine.create(model, saved);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Saved engine profile " + saved + " no longer works, recalibrating", e);
+            }
+        }
+
+        // 2. Calibrate, then keep the winner for later launches
+        EngineCalibrator calibrator = new EngineCalibrator(config -> TfLiteEngine.create(model, config));
+        EngineCalibrator.Result best = calibrator.calibrate(EngineCalibrator.candidates(
+                Runtime.getRuntime().availableProcessors(), TfLiteEngine.isGpuAvailable()));
+        if (best == null) {
+            Log.w(TAG, "Calibration found no working configuration, using the default");
+            return TfLiteEngine.createDefault(model);
+        }
+        Log.d(TAG, "Calibrated engine profile " + best.config + " (" + best.medianNanos / 1000 + " us)");
+        sharedPreferences.edit().putString(key, best.config.toString()).apply();
+        return TfLiteEngine.create(model, best.config);
+    }
+
+    private static String profileKey(ByteBuffer model) {
+        return Build.MANUFACTURER + "/" + Build.MODEL + "/" + Build.VERSION.SDK_INT
+                + "/" + EngineCalibrator.modelHash(model);
+    }
+}
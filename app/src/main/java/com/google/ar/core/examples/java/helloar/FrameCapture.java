@@ -0,0 +1,80 @@
+package com.google.ar.core.examples.java.helloar;
+
+import android.media.Image;
+import com.google.ar.core.Frame;
+import com.google.ar.core.Pose;
+import com.google.ar.core.examples.java.vision.CapturedFrame;
+import com.google.ar.core.examples.java.vision.CapturedFramePool;
+import com.google.ar.core.exceptions.NotYetAvailableException;
+
+/**
+ * Copy-and-release capture of the ARCore camera and depth images.
+ *
+ * <p>ARCore only has a handful of CPU images. Holding them open through conversion, inference and
+ * TTS starves that pool, and later acquisitions fail with {@link NotYetAvailableException}. This
+ * stage bulk-copies the planes, plus the camera pose, into a pooled {@link CapturedFrame} on the GL
+ * thread and closes both images before any heavy work starts.
+ */
+public class FrameCapture {
+    private final CapturedFramePool pool;
+
+    // Reused adapters; only valid while the images they wrap are open
+    private final ImageFrameSource cameraSource = new ImageFrameSource();
+    private final ImageDepthSource depthSource = new ImageDepthSource();
+
+    private volatile long capturedFrames;
+    private volatile long acquisitionFailures;
+
+    public FrameCapture(int poolSize) {
+        pool = new CapturedFramePool(poolSize);
+    }
+
+    /**
+     * Copies the camera and depth images of {@code frame}. Returns null, and counts why, if either
+     * image could not be acquired or copied, or every pooled frame is still in use.
+     */
+    public CapturedFrame capture(Frame frame) {
+        CapturedFrame captured = pool.acquire();
+        if (captured == null) return null;
+
+        // 1. Both images are closed as soon as their planes are copied
+        boolean copied = false;
+        try (Image cameraImage = frame.acquireCameraImage();
+             Image depthImage = frame.acquireDepthImage16Bits()) {
+            captured.copyFrom(cameraSource.wrap(cameraImage), depthSource.wrap(depthImage));
+            Pose pose = frame.getCamera().getPose();
+            pose.getTranslation(captured.getPose(), 0);
+            pose.getRotationQuaternion(captured.getPose(), 3);
+            copied = true;
+        } catch (NotYetAvailableException e) {
+            // 2. Normal for the first frames, or while depth is still initializing
+            return null;
+        } catch (RuntimeException e) {
+            // 3. Too many images held, a missed deadline, or planes the pooled frame cannot take
+            return null;
+        } finally {
+            // 4. A frame that was not filled goes straight back to the pool
+            if (!copied) {
+                acquisitionFailures++;
+                captured.release();
+            }
+        }
+
+        capturedFrames++;
+        return captured;
+    }
+
+    public long getCapturedFrames() {
+        return capturedFrames;
+    }
+
+    /** Frames skipped because a camera or depth image could not be acquired or copied. */
+    public long getAcquisitionFailures() {
+        return acquisitionFailures;
+    }
+
+    /** Frames skipped because every pooled frame was still in the pipeline. */
+    public long getPoolExhaustions() {
+        return pool.getExhaustions();
+    }
+}
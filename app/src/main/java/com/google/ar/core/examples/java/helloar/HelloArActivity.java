@@ -16,11 +16,11 @@
 
 package com.google.ar.core.examples.java.helloar;
 
+import android.content.Context;
 import android.content.DialogInterface;
 import android.content.res.Resources;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.RectF;
 import android.media.Image;
 import android.opengl.GLES30;
 import android.opengl.GLSurfaceView;
@@ -72,6 +72,15 @@ import com.google.ar.core.examples.java.common.samplerender.VertexBuffer;
 import com.google.ar.core.examples.java.common.samplerender.arcore.BackgroundRenderer;
 import com.google.ar.core.examples.java.common.samplerender.arcore.PlaneRenderer;
 import com.google.ar.core.examples.java.common.samplerender.arcore.SpecularCubemapFilter;
+import com.google.ar.core.examples.java.vision.CapturedFrame;
+import com.google.ar.core.examples.java.vision.ClassFilter;
+import com.google.ar.core.examples.java.vision.DetectionBatch;
+import com.google.ar.core.examples.java.vision.Detector;
+import com.google.ar.core.examples.java.vision.FrameRecorder;
+import com.google.ar.core.examples.java.vision.HeadFilter;
+import com.google.ar.core.examples.java.vision.ModelLoader;
+import com.google.ar.core.examples.java.vision.ResolutionController;
+import com.google.ar.core.examples.java.vision.VisionPipeline;
 import com.google.ar.core.exceptions.CameraNotAvailableException;
 import com.google.ar.core.exceptions.NotYetAvailableException;
 import com.google.ar.core.exceptions.UnavailableApkTooOldException;
@@ -79,14 +88,17 @@ import com.google.ar.core.exceptions.UnavailableArcoreNotInstalledException;
 import com.google.ar.core.exceptions.UnavailableDeviceNotCompatibleException;
 import com.google.ar.core.exceptions.UnavailableSdkTooOldException;
 import com.google.ar.core.exceptions.UnavailableUserDeclinedInstallationException;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ShortBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
-import android.graphics.Bitmap;
+import java.util.concurrent.ForkJoinPool;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import com.google.ar.core.examples.java.helloar.TTSHelper;
@@ -102,7 +114,6 @@ public class HelloArActivity extends AppCompatActivity implements SampleRender.R
   private int visionFrameCounter = 0;
   private static final String SEARCHING_PLANE_MESSAGE = "Searching for surfaces...";
   private static final String WAITING_FOR_TAP_MESSAGE = "Tap on a surface to place an object.";
-  private boolean isProcessingVision = false;
   // See the definition of updateSphericalHarmonicsCoefficients for an explanation of these
   // constants.
   private OverlayView overlayView;
@@ -185,13 +196,37 @@ public class HelloArActivity extends AppCompatActivity implements SampleRender.R
   private final float[] viewInverseMatrix = new float[16];
   private final float[] worldLightDirection = {0.0f, 0.0f, 0.0f, 0.0f};
   private final float[] viewLightDirection = new float[4]; // view x world light direction
-  private Bitmap rotatedBitmap;
-  private Bitmap inputToAI;
-  private YoloDetector detector;
-  private YuvToRgbConverter yuvToRgbConverter;
-  private Bitmap yoloBitmap;
+  // Loads and warms up the detector in the background; detector stays null until it is ready
+  private ModelLoader modelLoader;
+  private static final int MODEL_WARMUP_RUNS = 3;
+  private Detector detector;
+  private boolean resumed;
+  // Input sizes the loaded model runs at; written on the loader thread before the detector is ready
+  private volatile int[] modelInputSizes;
+  // Work one vision frame may take: every second camera frame at 30 fps
+  private static final long VISION_FRAME_BUDGET_NANOS = 66_000_000L;
   private TTSHelper tts;
   private boolean welcomeSpoken = false;
+  // Convert/infer/post-process threads; started in onResume, shut down in onPause/onDestroy
+  private volatile VisionPipeline visionPipeline;
+  // One frame more than the pipeline can hold, so capture never waits on it
+  private final FrameCapture frameCapture =
+      new FrameCapture(VisionPipeline.MAX_FRAMES_IN_FLIGHT + 1);
+  // Launch with "--ez record true" to record every processed frame for offline replay
+  public static final String EXTRA_RECORD = "record";
+  // Launch with "--ez calibrate true" to re-time the inference backends on this device
+  public static final String EXTRA_CALIBRATE = "calibrate";
+  // Launch with "--ei input_size 416" to pin the model input size instead of adapting it
+  public static final String EXTRA_INPUT_SIZE = "input_size";
+  // Launch with "--ez near_field true" to only look for nearby obstacles (no small-object head)
+  public static final String EXTRA_NEAR_FIELD = "near_field";
+  // Launch with "--es classes Stairs,Door,Car,Person" to only score those classes
+  public static final String EXTRA_CLASSES = "classes";
+  // Launch with "--ez class_aware_nms true" to keep overlapping boxes of different classes
+  public static final String EXTRA_CLASS_AWARE_NMS = "class_aware_nms";
+  // Launch with "--ez serial_decode true" to decode the model output on one thread only
+  public static final String EXTRA_SERIAL_DECODE = "serial_decode";
+  private FrameRecorder frameRecorder;
 
 
   @Override
@@ -228,20 +263,54 @@ public class HelloArActivity extends AppCompatActivity implements SampleRender.R
             popup.show();
           }
         });
-    try {
-      // 1. Initialize the YOLO detector with your specific model names
-      detector = new YoloDetector(this, "best-fp16-new.tflite", "labels.txt");
-
-      // 2. Initialize the high-speed camera converter
-      yuvToRgbConverter = new YuvToRgbConverter(this);
+    // Load the YOLO detector with your specific model names, off the UI thread
+    // (the application context, so a slow load cannot leak this activity)
+    Context appContext = getApplicationContext();
+    boolean recalibrate = getIntent().getBooleanExtra(EXTRA_CALIBRATE, false);
+    modelLoader = new ModelLoader(
+        () -> {
+          YoloDetector loaded =
+              new YoloDetector(appContext, "best-fp16-new.tflite", "labels.txt", recalibrate);
+          modelInputSizes = loaded.probeInputSizes(ResolutionController.DEFAULT_SIZES);
+          return loaded;
+        },
+        MODEL_WARMUP_RUNS);
+    modelLoader.start(
+        new ModelLoader.Listener() {
+          @Override
+          public void onReady(Detector loaded) {
+            runOnUiThread(HelloArActivity.this::onDetectorReady);
+          }
 
-      // 3. Create the 640x640 "canvas" for the AI to look at
-      yoloBitmap = Bitmap.createBitmap(640, 480, Bitmap.Config.ARGB_8888);
+          @Override
+          public void onFailed(Exception e) {
+            Log.e("NAV_APP", "CRITICAL VISION ERROR: ", e);
+          }
+        });
+  }
 
-      Log.d("NAV_APP", "AI Vision Engine Initialized Successfully!");
-    } catch (Exception e) {
-      Log.e("NAV_APP", "CRITICAL VISION ERROR: ", e);
+  private void onDetectorReady() {
+    if (modelLoader == null) return;
+    detector = modelLoader.getDetector();
+    if (detector != null && getIntent().getBooleanExtra(EXTRA_NEAR_FIELD, false)) {
+      detector.setHeadFilter(HeadFilter.NEAR_FIELD);
+    }
+    if (detector != null && !getIntent().getBooleanExtra(EXTRA_SERIAL_DECODE, false)) {
+      detector.setParallelDecode(ForkJoinPool.commonPool(), Detector.PARALLEL_DECODE_CUTOFF);
     }
+    if (detector != null && getIntent().getBooleanExtra(EXTRA_CLASS_AWARE_NMS, false)) {
+      detector.setClassAwareNms(true);
+    }
+    String classes = getIntent().getStringExtra(EXTRA_CLASSES);
+    if (detector != null && classes != null) {
+      try {
+        detector.setClassFilter(ClassFilter.forLabels(detector.getLabels()).only(classes.split(",")));
+      } catch (IllegalArgumentException e) {
+        Log.w("NAV_APP", "Ignoring class filter: " + e.getMessage());
+      }
+    }
+    Log.d("NAV_APP", "AI Vision Engine Initialized Successfully!");
+    if (resumed) startVisionPipeline();
   }
 
   /** Menu button to launch feature specific settings. */
@@ -277,6 +346,12 @@ public class HelloArActivity extends AppCompatActivity implements SampleRender.R
 
   @Override
   protected void onDestroy() {
+    stopVisionPipeline();
+    if (modelLoader != null) {
+      modelLoader.close();
+      modelLoader = null;
+      detector = null;
+    }
     if (session != null) {
       // Explicitly close ARCore Session to release native resources.
       // Review the API reference for important considerations before calling close() in apps with
@@ -366,11 +441,51 @@ public class HelloArActivity extends AppCompatActivity implements SampleRender.R
 
     surfaceView.onResume();
     displayRotationHelper.onResume();
+
+    resumed = true;
+    startVisionPipeline();
+  }
+
+  // Frames are only admitted once the detector is loaded and warmed up
+  private void startVisionPipeline() {
+    if (visionPipeline != null || detector == null) return;
+    VisionPipeline pipeline = new VisionPipeline(detector, this::onVisionResults);
+    pipeline.setResolutionController(createResolutionController());
+    visionPipeline = pipeline;
+    if (getIntent().getBooleanExtra(EXTRA_RECORD, false)) {
+      startRecording(pipeline);
+    }
+  }
+
+  // Adapts the input size to the frame budget, or pins it if the launch intent asks for a size
+  private ResolutionController createResolutionController() {
+    int[] sizes = modelInputSizes;
+    if (sizes == null || sizes.length < 2) return null;
+    int pinnedSize = getIntent().getIntExtra(EXTRA_INPUT_SIZE, 0);
+    for (int size : sizes) {
+      if (size == pinnedSize) sizes = new int[] {pinnedSize};
+    }
+    Log.d("NAV_APP", "Model input sizes " + Arrays.toString(sizes));
+    return new ResolutionController(sizes, detector.getInputSize(), VISION_FRAME_BUDGET_NANOS);
+  }
+
+  private void startRecording(VisionPipeline pipeline) {
+    File file = new File(getExternalFilesDir(null), "vision-" + System.currentTimeMillis() + ".vrec");
+    try {
+      frameRecorder = new FrameRecorder(new FileOutputStream(file).getChannel());
+      pipeline.setRecorder(frameRecorder);
+      Log.d("NAV_APP", "Recording frames to " + file);
+    } catch (IOException e) {
+      Log.e(TAG, "Could not start recording", e);
+    }
   }
 
   @Override
   public void onPause() {
     super.onPause();
+    resumed = false;
+    // Stop vision first so no stage still holds images from the session being paused
+    stopVisionPipeline();
     if (session != null) {
       // Note that the order matters - GLSurfaceView is paused first so that it does not try
       // to query the session. If Session is paused before GLSurfaceView, GLSurfaceView may
@@ -381,6 +496,27 @@ public class HelloArActivity extends AppCompatActivity implements SampleRender.R
     }
   }
 
+  private void stopVisionPipeline() {
+    VisionPipeline pipeline = visionPipeline;
+    if (pipeline != null) {
+      visionPipeline = null;
+      pipeline.shutdown();
+      Log.d("NAV_APP", "Vision pipeline stopped. " + pipeline.formatStats()
+          + " | captured " + frameCapture.getCapturedFrames()
+          + " | not ready " + frameCapture.getAcquisitionFailures()
+          + " | pool exhausted " + frameCapture.getPoolExhaustions());
+    }
+    if (frameRecorder != null) {
+      try {
+        frameRecorder.close();
+        Log.d("NAV_APP", "Recorded " + frameRecorder.getFrameCount() + " frames");
+      } catch (IOException e) {
+        Log.e(TAG, "Could not finish recording", e);
+      }
+      frameRecorder = null;
+    }
+  }
+
   @Override
   public void onRequestPermissionsResult(int requestCode, String[] permissions, int[] results) {
     super.onRequestPermissionsResult(requestCode, permissions, results);
@@ -406,8 +542,6 @@ public class HelloArActivity extends AppCompatActivity implements SampleRender.R
   public void onSurfaceCreated(SampleRender render) {
     // Prepare the rendering objects. This involves reading shaders and 3D model files, so may throw
     // an IOException.
-    rotatedBitmap = Bitmap.createBitmap(640, 480, Bitmap.Config.ARGB_8888); // Match your camera res
-    inputToAI = Bitmap.createBitmap(640, 640, Bitmap.Config.ARGB_8888);
     try {
       planeRenderer = new PlaneRenderer(render);
       backgroundRenderer = new BackgroundRenderer(render);
@@ -557,126 +691,17 @@ public class HelloArActivity extends AppCompatActivity implements SampleRender.R
 
     visionFrameCounter++;
 
-    if (visionFrameCounter % 2 == 0 && !isProcessingVision) {
-      isProcessingVision = true;
-
-      // 1. ACQUIRE IMAGES IMMEDIATELY (While frame is valid)
-      Image cameraImage = null;
-      Image depthImage = null;
-      try {
-        cameraImage = frame.acquireCameraImage();
-        depthImage = frame.acquireDepthImage16Bits();
-      } catch (NotYetAvailableException e) {
-        isProcessingVision = false;
-      }
-
-      if (cameraImage != null && depthImage != null) {
-        final Image finalCameraImage = cameraImage;
-        final Image finalDepthImage = depthImage;
-
-        new Thread(() -> {
-          // Timers for diagnostics
-          long startTime = System.currentTimeMillis();
-          android.graphics.Bitmap rotatedBitmap = null;
-
-          try {
-            // 1. Get raw pixels from ARCore camera (Landscape 640x480)
-            yuvToRgbConverter.yuvToRgb(finalCameraImage, yoloBitmap);
-
-            // 2. Rotate 90 deg for Portrait (Now 480x640)
-            android.graphics.Matrix matrix = new android.graphics.Matrix();
-            matrix.postRotate(90);
-            rotatedBitmap = android.graphics.Bitmap.createBitmap(
-                    yoloBitmap, 0, 0, yoloBitmap.getWidth(), yoloBitmap.getHeight(), matrix, true
-            );
-
-            // 3. CHANGE HERE: Let the detector handle the preprocessing
-            // This replaces your manual preprocessLetterbox(rotatedBitmap)
-            YoloDetector.PreprocessResult preResult = detector.preprocessBitmap(rotatedBitmap, 640);
-
-            // 4. Run Detection on the result buffer
-            long aiStart = System.currentTimeMillis();
-            // Pass the rotatedBitmap; detector.detect() will internalize the offsets
-            List<YoloDetector.Detection> results = detector.detect(rotatedBitmap);
-            long aiEnd = System.currentTimeMillis();
-
-            android.util.Log.d("YOLO_PERF", "AI Inference: " + (aiEnd - aiStart) + "ms");
-
-            for (YoloDetector.Detection result : results) {
-              // 5. Use the RAW AI coordinates (0-640) to hit the depth map
-              // Since detector.detect(rotatedBitmap) now saves raw coords
-              float normX = result.boundingBox.centerX() / 640f;
-              float normY = result.boundingBox.centerY() / 640f;
-
-              float distance = getDistanceFromCapturedImage(
-                      finalDepthImage,
-                      normX,
-                      normY);
-
-              result.distance = distance;
-
-              result.direction = getDirection(result.boundingBox, 640); //FOR THE DIRECTION
-            }
-            // 1. Speak welcome message only once, after first valid depth
-            if (!welcomeSpoken) {
-              boolean hasValidDepth = false;
-              for (YoloDetector.Detection r : results) {
-                if (r.distance > 0) {
-                  hasValidDepth = true;
-                  break;
-                }
-              }
-              if (hasValidDepth) {
-                tts.speak("Welcome to VISION");
-                welcomeSpoken = true;
-              }
-            }
-
-            // 2. Sort by distance (closest first)
-            results.sort((a, b) -> Float.compare(a.distance, b.distance));
-
-            // 3. Speak each object with distance
-            for (YoloDetector.Detection result : results) {
-              if (result.distance > 0) {
-                tts.speakDetection(result.label, result.distance, result.direction);
-              }
-            }
-
-
+    VisionPipeline pipeline = visionPipeline;
+    if (visionFrameCounter % 2 == 0 && pipeline != null) {
+      // 1. COPY AND CLOSE THE IMAGES IMMEDIATELY (While frame is valid)
+      CapturedFrame captured = frameCapture.capture(frame);
 
-            // 6. Update UI
-            runOnUiThread(() -> {
-              if (overlayView != null) {
-                overlayView.setResults(results);
-                overlayView.invalidate();
-              }
-            });
-
-          } catch (Exception e) {
-            android.util.Log.e("NAV_APP", "Vision Error: " + e.getMessage());
-          } finally {
-            // 7. MEMORY CLEANUP: Essential to prevent "Slowness" over time
-            if (rotatedBitmap != null && !rotatedBitmap.isRecycled()) {
-              rotatedBitmap.recycle();
-            }
-
-            // Close ARCore images so the next frame can be captured
-            if (finalCameraImage != null) finalCameraImage.close();
-            if (finalDepthImage != null) finalDepthImage.close();
-
-            // Unlock the processing gate
-            isProcessingVision = false;
-          }
-        }).start();
+      if (captured != null) {
+        // 2. The pipeline owns the copy now; an older frame still waiting is dropped and released
+        pipeline.submit(captured);
       } else {
-        // Clean up if one was null
-        if (cameraImage != null) cameraImage.close();
-        if (depthImage != null) depthImage.close();
-
         // Clear old boxes from the screen
-        runOnUiThread(() -> { if(overlayView != null) overlayView.setResults(new ArrayList<>()); });
-
-        isProcessingVision = false;
+        if (overlayView != null) overlayView.setResults(null);
       }
     }
     // --- END YOLO VISION CODE ---
@@ -816,16 +841,43 @@ public class HelloArActivity extends AppCompatActivity implements SampleRender.R
     // Compose the virtual scene with the background.
     //backgroundRenderer.drawVirtualScene(render, virtualSceneFramebuffer, Z_NEAR, Z_FAR);
   }
-  // FOR THE DIRRECTION OF THE BOUNDING BOX
-  private YoloDetector.Direction getDirection(RectF box, int screenWidth) {
-    float centerX = (box.left + box.right) / 2f;
-
-    if (centerX < screenWidth * 0.33f) {
-      return YoloDetector.Direction.LEFT;
-    } else if (centerX > screenWidth * 0.66f) {
-      return YoloDetector.Direction.RIGHT;
+  /**
+   * Runs on the pipeline's post-process thread once a frame has been converted, inferred, decoded
+   * and given distances and directions. Takes ownership of {@code results}.
+   */
+  private void onVisionResults(DetectionBatch results) {
+    ModelLoader loader = modelLoader;
+    if (loader != null) loader.reportFirstDetection();
+    // 1. Speak welcome message only once, after first valid depth
+    if (!welcomeSpoken) {
+      boolean hasValidDepth = false;
+      for (int i = 0; i < results.size(); i++) {
+        if (results.getDistance(i) > 0) {
+          hasValidDepth = true;
+          break;
+        }
+      }
+      if (hasValidDepth) {
+        tts.speak("Welcome to VISION");
+        welcomeSpoken = true;
+      }
+    }
+
+    // 2. Sort by distance (closest first)
+    results.sortByDistance();
+
+    // 3. Speak each object with distance
+    for (int i = 0; i < results.size(); i++) {
+      if (results.getDistance(i) > 0) {
+        tts.speakDetection(results.getLabel(i), results.getDistance(i), results.getDirection(i));
+      }
+    }
+
+    // 4. Update UI. The overlay takes ownership and recycles the batch it replaces.
+    if (overlayView != null) {
+      overlayView.setResults(results);
     } else {
-      return YoloDetector.Direction.CENTER;
+      results.release();
     }
   }
 
@@ -1085,35 +1137,6 @@ public class HelloArActivity extends AppCompatActivity implements SampleRender.R
     }
 
   }
-  private float getDistanceFromCapturedImage(Image depthImage, float x, float y) {
-    try {
-      int width = depthImage.getWidth();
-      int height = depthImage.getHeight();
-
-      // Since we center-cropped the camera, we must sample the center-crop of the depth map
-      // 1. Determine the square area of the depth map
-      int size = Math.min(width, height);
-      int offsetX = (width - size) / 2;
-      int offsetY = (height - size) / 2;
-
-      // 2. Map the 640x640 AI coordinate to that square area
-      int cpuX = offsetX + (int) (x * size / 640f);
-      int cpuY = offsetY + (int) (y * size / 640f);
-
-      if (cpuX < 0 || cpuX >= width || cpuY < 0 || cpuY >= height) return -1f;
-
-      Image.Plane plane = depthImage.getPlanes()[0];
-      ShortBuffer depthBuffer = plane.getBuffer().order(ByteOrder.nativeOrder()).asShortBuffer();
-
-      int index = cpuY * (plane.getRowStride() / 2) + cpuX;
-      short depthSample = depthBuffer.get(index);
-
-      return (depthSample & 0xFFFF) / 1000.0f; // Distance in Meters
-    } catch (Exception e) {
-      return -1.0f;
-    }
-  }
-
 
 }
 
@@ -0,0 +1,38 @@
+package com.google.ar.core.examples.java.helloar;
+
+import android.media.Image;
+import com.google.ar.core.examples.java.vision.DepthSource;
+import java.nio.ByteBuffer;
+
+/** Presents an ARCore DEPTH16 {@link Image} as a {@link DepthSource}. Reusable via {@link #wrap}. */
+public class ImageDepthSource implements DepthSource {
+    private Image image;
+    private Image.Plane plane;
+
+    /** Points this source at {@code image}; it stays valid until that image is closed. */
+    public ImageDepthSource wrap(Image image) {
+        this.image = image;
+        this.plane = image.getPlanes()[0];
+        return this;
+    }
+
+    @Override
+    public int getDepthWidth() {
+        return image.getWidth();
+    }
+
+    @Override
+    public int getDepthHeight() {
+        return image.getHeight();
+    }
+
+    @Override
+    public int getDepthRowStride() {
+        return plane.getRowStride();
+    }
+
+    @Override
+    public ByteBuffer getDepthBuffer() {
+        return plane.getBuffer();
+    }
+}
@@ -0,0 +1,63 @@
+package com.google.ar.core.examples.java.helloar;
+
+import android.media.Image;
+import com.google.ar.core.examples.java.vision.FrameSource;
+import java.nio.ByteBuffer;
+
+/** Presents a YUV_420_888 {@link Image} as a {@link FrameSource}. Reusable via {@link #wrap}. */
+public class ImageFrameSource implements FrameSource {
+    private Image image;
+    private Image.Plane[] planes;
+
+    /** Points this source at {@code image}; it stays valid until that image is closed. */
+    public ImageFrameSource wrap(Image image) {
+        this.image = image;
+        this.planes = image.getPlanes();
+        return this;
+    }
+
+    @Override
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    @Override
+    public long getTimestampNs() {
+        return image.getTimestamp();
+    }
+
+    @Override
+    public ByteBuffer getYPlane() {
+        return planes[0].getBuffer();
+    }
+
+    @Override
+    public ByteBuffer getUPlane() {
+        return planes[1].getBuffer();
+    }
+
+    @Override
+    public ByteBuffer getVPlane() {
+        return planes[2].getBuffer();
+    }
+
+    @Override
+    public int getYRowStride() {
+        return planes[0].getRowStride();
+    }
+
+    @Override
+    public int getUvRowStride() {
+        return planes[1].getRowStride();
+    }
+
+    @Override
+    public int getUvPixelStride() {
+        return planes[1].getPixelStride();
+    }
+}
@@ -8,17 +8,22 @@ import android.graphics.RectF;
 import android.graphics.Typeface;
 import android.util.AttributeSet;
 import android.view.View;
-import java.util.ArrayList;
-import java.util.List;
+import com.google.ar.core.examples.java.vision.DetectionBatch;
 
 public class OverlayView extends View {
-    private List<YoloDetector.Detection> detections = new ArrayList<>();
+    // Owned by the view until a newer batch replaces it; guarded by "this"
+    private DetectionBatch detections;
     private final Paint boxPaint = new Paint();
     private final Paint textPaint = new Paint();
 
     // 1. ADD THIS: New paint for the validation dot
     private final Paint dotPaint = new Paint();
 
+    // Reused for every box and label so drawing does not allocate
+    private final float[] screenBox = new float[4];
+    private final RectF screenRect = new RectF();
+    private final StringBuilder labelText = new StringBuilder();
+
     public OverlayView(Context context, AttributeSet attrs) {
         super(context, attrs);
         boxPaint.setColor(Color.parseColor("#00FF00"));
@@ -36,43 +41,64 @@ public class OverlayView extends View {
         dotPaint.setAntiAlias(true);
     }
 
-    public void setResults(List<YoloDetector.Detection> results) {
-        this.detections = results;
+    /**
+     * Shows {@code results} (may be null to clear) and releases the previously shown batch back to
+     * its pool. Safe to call from the vision thread.
+     */
+    public void setResults(DetectionBatch results) {
+        DetectionBatch previous;
+        synchronized (this) {
+            previous = detections;
+            detections = results;
+        }
+        if (previous != null && previous != results) {
+            // onDraw holds the lock while drawing, so the old batch is no longer being read
+            previous.release();
+        }
         postInvalidate();
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        if (detections == null || detections.isEmpty()) return;
 
         float screenW = getWidth();
         float screenH = getHeight();
 
-        // Assume original image dimensions are same as latest detected frame
-        float imgW = YoloDetector.originalImgW;
-        float imgH = YoloDetector.originalImgH;
-
-        float scaleX = screenW / imgW;
-        float scaleY = screenH / imgH;
-
-        for (YoloDetector.Detection det : detections) {
-            RectF screenRect = det.getScreenRect(screenW, screenH);
-
-            // Draw bounding box
-            canvas.drawRect(screenRect, boxPaint);
-
-            // Draw center dot
-            float cx = screenRect.centerX();
-            float cy = screenRect.centerY();
-            canvas.drawCircle(cx, cy, 15f, dotPaint);
-
-            // Draw label + distance
-            String labelText = det.label + (det.distance > 0 ? String.format(" %.2fm", det.distance) : "");
-            canvas.drawText(labelText, screenRect.left, screenRect.top - 15, textPaint);
-
+        synchronized (this) {
+            if (detections == null || detections.isEmpty()) return;
+
+            for (int i = 0; i < detections.size(); i++) {
+                detections.getScreenRect(i, screenW, screenH, screenBox);
+                screenRect.set(screenBox[0], screenBox[1], screenBox[2], screenBox[3]);
+
+                // Draw bounding box
+                canvas.drawRect(screenRect, boxPaint);
+
+                // Draw center dot
+                float cx = screenRect.centerX();
+                float cy = screenRect.centerY();
+                canvas.drawCircle(cx, cy, 15f, dotPaint);
+
+                // Draw label + distance
+                labelText.setLength(0);
+                labelText.append(detections.getLabel(i));
+                float distance = detections.getDistance(i);
+                if (distance > 0) appendMeters(labelText, distance);
+                canvas.drawText(labelText, 0, labelText.length(),
+                        screenRect.left, screenRect.top - 15, textPaint);
+            }
         }
 
     }
 
-}
\ No newline at end of file
+    // Same text as String.format(" %.2fm", meters) without the formatter garbage
+    private static void appendMeters(StringBuilder sb, float meters) {
+        int centimeters = Math.round(meters * 100f);
+        int fraction = centimeters % 100;
+        sb.append(' ').append(centimeters / 100).append('.');
+        if (fraction < 10) sb.append('0');
+        sb.append(fraction).append('m');
+    }
+
+}
@@ -3,6 +3,7 @@ package com.google.ar.core.examples.java.helloar;
 import android.content.Context;
 import android.speech.tts.TextToSpeech;
 import android.util.Log;
+import com.google.ar.core.examples.java.vision.Direction;
 
 import java.util.HashMap;
 import java.util.Locale;
@@ -79,6 +80,11 @@ public class TTSHelper {
         }
     }
 
+    // True once the cooldown has passed, so we can skip building sentences that would not play
+    private boolean isCooldownOver() {
+        return System.currentTimeMillis() - lastAudioTime >= COOLDOWN_MS;
+    }
+
     /** Convert label to index */
     public int getClassIndex(String label) {
         if (labelToIndex.containsKey(label)) {
@@ -101,7 +107,7 @@ public class TTSHelper {
         }
     }
 
-    private String formatSentence(String label, float distance, YoloDetector.Direction direction) {
+    private String formatSentence(String label, float distance, Direction direction) {
         String localizedLabel = getLocalizedLabel(label);
 
         // Determine direction text
@@ -141,7 +147,8 @@ public class TTSHelper {
 
 
     /** Speak an object detection with distance, localized */
-    public void speakDetection(String label, float distance, YoloDetector.Direction direction) {
+    public void speakDetection(String label, float distance, Direction direction) {
+        if (!isCooldownOver()) return;
         speak(formatSentence(label, distance, direction));
     }
 
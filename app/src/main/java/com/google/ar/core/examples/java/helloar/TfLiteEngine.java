@@ -0,0 +1,138 @@
+package com.google.ar.core.examples.java.helloar;
+
+import com.google.ar.core.examples.java.vision.EngineConfig;
+import com.google.ar.core.examples.java.vision.InferenceEngine;
+import com.google.ar.core.examples.java.vision.TensorFormat;
+import org.tensorflow.lite.Delegate;
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
+import org.tensorflow.lite.gpu.CompatibilityList;
+import org.tensorflow.lite.gpu.GpuDelegate;
+import org.tensorflow.lite.nnapi.NnApiDelegate;
+import java.nio.ByteBuffer;
+
+/** {@link InferenceEngine} backed by a TensorFlow Lite {@link Interpreter}. */
+public class TfLiteEngine implements InferenceEngine {
+    private final Interpreter tfLite;
+    private final Delegate delegate;
+    // Change with resizeInput; only touched by the thread that runs the model
+    private int[] inputShape;
+    private int[] outputShape;
+    private final TensorFormat inputFormat;
+    private final TensorFormat outputFormat;
+
+    /**
+     * @param delegate added to the interpreter and closed with this engine; null runs on the CPU
+     */
+    public TfLiteEngine(ByteBuffer model, int numThreads, Delegate delegate) {
+        this(model, numThreads, delegate, true);
+    }
+
+    private TfLiteEngine(ByteBuffer model, int numThreads, Delegate delegate, boolean useXnnpack) {
+        Interpreter.Options options = new Interpreter.Options();
+        options.setNumThreads(numThreads);
+        options.setUseXNNPACK(useXnnpack);
+        if (delegate != null) options.addDelegate(delegate);
+        this.tfLite = new Interpreter(model, options);
+        this.delegate = delegate;
+        this.inputShape = tfLite.getInputTensor(0).shape();
+        this.outputShape = tfLite.getOutputTensor(0).shape();
+        this.inputFormat = formatOf(tfLite.getInputTensor(0));
+        this.outputFormat = formatOf(tfLite.getOutputTensor(0));
+    }
+
+    // float32, or uint8/int8 with the tensor's per-tensor quantization
+    private static TensorFormat formatOf(Tensor tensor) {
+        Tensor.QuantizationParams params = tensor.quantizationParams();
+        switch (tensor.dataType()) {
+            case FLOAT32:
+                return TensorFormat.FLOAT32;
+            case UINT8:
+                return TensorFormat.quantized(TensorFormat.Type.UINT8, params.getScale(), params.getZeroPoint());
+            case INT8:
+                return TensorFormat.quantized(TensorFormat.Type.INT8, params.getScale(), params.getZeroPoint());
+            default:
+                throw new IllegalArgumentException("Unsupported tensor type " + tensor.dataType());
+        }
+    }
+
+    /** The configuration the app always used: 4 CPU threads plus NNAPI. */
+    public static TfLiteEngine createDefault(ByteBuffer model) {
+        return new TfLiteEngine(model, 4, new NnApiDelegate());
+    }
+
+    /** Builds the engine for {@code config}; throws if its backend is not available here. */
+    public static TfLiteEngine create(ByteBuffer model, EngineConfig config) {
+        switch (config.backend) {
+            case CPU:
+                return new TfLiteEngine(model, config.threads, null, false);
+            case XNNPACK:
+                return new TfLiteEngine(model, config.threads, null, true);
+            case NNAPI:
+                return new TfLiteEngine(model, config.threads, new NnApiDelegate());
+            case GPU:
+                try (CompatibilityList compatibility = new CompatibilityList()) {
+                    if (!compatibility.isDelegateSupportedOnThisDevice()) {
+                        throw new UnsupportedOperationException("GPU delegate not supported on this device");
+                    }
+                    return new TfLiteEngine(model, config.threads,
+                            new GpuDelegate(compatibility.getBestOptionsForThisDevice()));
+                }
+            default:
+                throw new IllegalArgumentException("Unknown backend " + config.backend);
+        }
+    }
+
+    /** Whether the GPU delegate can run on this device. */
+    public static boolean isGpuAvailable() {
+        try (CompatibilityList compatibility = new CompatibilityList()) {
+            return compatibility.isDelegateSupportedOnThisDevice();
+        } catch (RuntimeException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int[] getInputShape() {
+        return inputShape.clone();
+    }
+
+    @Override
+    public int[] getOutputShape() {
+        return outputShape.clone();
+    }
+
+    @Override
+    public TensorFormat getInputFormat() {
+        return inputFormat;
+    }
+
+    @Override
+    public TensorFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    @Override
+    public boolean canResizeInput() {
+        return true;
+    }
+
+    @Override
+    public void resizeInput(int[] shape) {
+        tfLite.resizeInput(0, shape);
+        tfLite.allocateTensors();
+        inputShape = tfLite.getInputTensor(0).shape();
+        outputShape = tfLite.getOutputTensor(0).shape();
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer output) {
+        tfLite.run(input, output);
+    }
+
+    @Override
+    public void close() {
+        tfLite.close();
+        if (delegate != null) delegate.close();
+    }
+}
@@ -0,0 +1,77 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.ClassFilter;
+import com.google.ar.core.examples.java.vision.HeadFilter;
+import com.google.ar.core.examples.java.vision.OutputLayout;
+import com.google.ar.core.examples.java.vision.TensorFormat;
+import com.google.ar.core.examples.java.vision.YoloOutputDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Thresholding and class argmax over a 25200-anchor, 19-class output at different candidate
+ * densities, in both the YOLOv5 row layout and the transposed YOLOv8 one, from float32 or from
+ * the raw bytes of a quantized model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class DecodeBenchmark {
+
+    // Fraction of rows above the confidence threshold: an empty room up to a crowded street
+    @Param({"0.001", "0.01", "0.05"})
+    public double density;
+
+    @Param({"YOLO_V5", "YOLO_V8"})
+    public OutputLayout layout;
+
+    @Param({"false", "true"})
+    public boolean quantized;
+
+    private YoloOutputDecoder decoder;
+    private ClassFilter navigationClasses;
+
+    @Setup
+    public void setUp() {
+        TensorFormat format = quantized ? SyntheticOutputs.UINT8 : TensorFormat.FLOAT32;
+        decoder = new YoloOutputDecoder(layout, SyntheticOutputs.ROWS, SyntheticOutputs.CLASSES,
+                SyntheticOutputs.INPUT_SIZE, format);
+        float[] tensor = layout == OutputLayout.YOLO_V5
+                ? SyntheticOutputs.tensor(density, 42L)
+                : SyntheticOutputs.tensorV8(density, 42L);
+        if (quantized) {
+            decoder.getOutputBuffer().put(SyntheticOutputs.quantize(tensor));
+        } else {
+            decoder.getOutputBuffer().asFloatBuffer().put(tensor);
+        }
+        List<String> labels = new ArrayList<>();
+        for (int c = 0; c < SyntheticOutputs.CLASSES; c++) labels.add("class" + c);
+        navigationClasses = ClassFilter.forLabels(labels).only("class4", "class7", "class17", "class18");
+    }
+
+    @Benchmark
+    public int decode() {
+        return decoder.decode(SyntheticOutputs.CONF_THRESHOLD);
+    }
+
+    // Stride 16 and 32 heads only: 24% of the anchors
+    @Benchmark
+    public int decodeNearField() {
+        return decoder.decode(SyntheticOutputs.CONF_THRESHOLD, HeadFilter.NEAR_FIELD);
+    }
+
+    // Four of the 19 classes scored, as a navigation profile would
+    @Benchmark
+    public int decodeFourClasses() {
+        return decoder.decode(SyntheticOutputs.CONF_THRESHOLD, HeadFilter.ALL, navigationClasses);
+    }
+}
@@ -0,0 +1,48 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.DepthSampler;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Depth lookups for one frame's detections, at the ARCore depth image sizes. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DepthSamplingBenchmark {
+
+    @Param({"160x120", "640x480"})
+    public String depthResolution;
+
+    @Param({"10", "100"})
+    public int boxes;
+
+    private SyntheticFrame frame;
+    private float[] points;
+
+    @Setup
+    public void setUp() {
+        String[] size = depthResolution.split("x");
+        frame = new SyntheticFrame(64, 48, 2, Integer.parseInt(size[0]), Integer.parseInt(size[1]), 42L);
+        Random random = new Random(42L);
+        points = new float[2 * boxes];
+        // Normalized box centers, the way VisionPipeline passes them
+        for (int i = 0; i < points.length; i++) points[i] = random.nextFloat();
+    }
+
+    @Benchmark
+    public float sample() {
+        float sum = 0f;
+        for (int i = 0; i < boxes; i++) {
+            sum += DepthSampler.distanceAt(frame, points[2 * i], points[2 * i + 1]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,55 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.ArgbPacker;
+import com.google.ar.core.examples.java.vision.ModelInput;
+import com.google.ar.core.examples.java.vision.TensorFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Packing a letterboxed 640x640 ARGB image into the float32 or uint8 model input. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class LetterboxPackBenchmark {
+
+    @Param({"1", "4"})
+    public int stripes;
+
+    @Param({"false", "true"})
+    public boolean quantized;
+
+    private ArgbPacker packer;
+    private ModelInput input;
+    private int[] pixels;
+
+    @Setup
+    public void setUp() {
+        int size = SyntheticOutputs.INPUT_SIZE;
+        packer = new ArgbPacker();
+        packer.setStripeCount(stripes);
+        input = new ModelInput(size, quantized ? SyntheticOutputs.UINT8 : TensorFormat.FLOAT32);
+        // A 480x640 portrait image with 80 px black bars, like the rotated camera frame
+        input.setLetterbox(480, 640, size);
+        pixels = new int[size * size];
+        Random random = new Random(42L);
+        for (int y = 0; y < size; y++) {
+            for (int x = input.xOffset; x < size - input.xOffset; x++) {
+                pixels[y * size + x] = 0xFF000000 | random.nextInt(0x1000000);
+            }
+        }
+    }
+
+    @Benchmark
+    public ModelInput pack() {
+        packer.pack(pixels, input);
+        return input;
+    }
+}
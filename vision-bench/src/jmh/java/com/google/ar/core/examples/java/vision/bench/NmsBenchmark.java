@@ -0,0 +1,132 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.GridNms;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Grid NMS against the list-based greedy loop it replaced, on clustered candidates; and
+ * class-aware grid NMS in one pass against the naive way, one NMS per class.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class NmsBenchmark {
+
+    // 200 is the top-K bound the detector runs with
+    @Param({"100", "200", "1000", "5000"})
+    public int candidates;
+
+    private final GridNms nms = new GridNms(SyntheticOutputs.INPUT_SIZE);
+    private float[] boxes;
+    private float[] scores;
+    private int[] classIds;
+
+    // Per-class copies for perClass(), outside the timed loop
+    private final float[][] classBoxes = new float[SyntheticOutputs.CLASSES][];
+    private final float[][] classScores = new float[SyntheticOutputs.CLASSES][];
+    private final int[] classCounts = new int[SyntheticOutputs.CLASSES];
+
+    @Setup
+    public void setUp() {
+        boxes = new float[4 * candidates];
+        scores = new float[candidates];
+        classIds = new int[candidates];
+        SyntheticOutputs.candidates(candidates, 42L, boxes, scores, classIds);
+
+        for (int c = 0; c < SyntheticOutputs.CLASSES; c++) {
+            classBoxes[c] = new float[4 * candidates];
+            classScores[c] = new float[candidates];
+        }
+    }
+
+    @Benchmark
+    public int grid() {
+        return nms.run(boxes, scores, candidates, SyntheticOutputs.IOU_THRESHOLD);
+    }
+
+    @Benchmark
+    public int gridClassAware() {
+        return nms.run(boxes, scores, classIds, candidates, SyntheticOutputs.IOU_THRESHOLD);
+    }
+
+    /** Class-aware the naive way: partition by class, then one grid NMS per class. */
+    @Benchmark
+    public int perClass() {
+        Arrays.fill(classCounts, 0);
+        for (int i = 0; i < candidates; i++) {
+            int c = classIds[i];
+            int n = classCounts[c]++;
+            System.arraycopy(boxes, 4 * i, classBoxes[c], 4 * n, 4);
+            classScores[c][n] = scores[i];
+        }
+        int kept = 0;
+        for (int c = 0; c < SyntheticOutputs.CLASSES; c++) {
+            if (classCounts[c] == 0) continue;
+            kept += nms.run(classBoxes[c], classScores[c], classCounts[c], SyntheticOutputs.IOU_THRESHOLD);
+        }
+        return kept;
+    }
+
+    /** The original applyNMS: one object per candidate, sort, then removeIf per kept box. */
+    @Benchmark
+    public int list() {
+        List<Box> all = new ArrayList<>();
+        for (int i = 0; i < candidates; i++) {
+            all.add(new Box(boxes[4 * i], boxes[4 * i + 1], boxes[4 * i + 2], boxes[4 * i + 3], scores[i]));
+        }
+
+        // Sort by confidence descending
+        all.sort((a, b) -> Float.compare(b.confidence, a.confidence));
+
+        List<Box> kept = new ArrayList<>();
+        while (!all.isEmpty()) {
+            Box best = all.remove(0);
+            kept.add(best);
+            all.removeIf(next -> calculateIoU(best, next) > SyntheticOutputs.IOU_THRESHOLD);
+        }
+        return kept.size();
+    }
+
+    private static float calculateIoU(Box a, Box b) {
+        float intersectionArea = Math.max(0, Math.min(a.right, b.right) - Math.max(a.left, b.left)) *
+                Math.max(0, Math.min(a.bottom, b.bottom) - Math.max(a.top, b.top));
+        float unionArea = (a.width() * a.height()) + (b.width() * b.height()) - intersectionArea;
+        return intersectionArea / unionArea;
+    }
+
+    // Stand-in for the RectF-based Detection of the old code
+    private static final class Box {
+        final float left;
+        final float top;
+        final float right;
+        final float bottom;
+        final float confidence;
+
+        Box(float left, float top, float right, float bottom, float confidence) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            this.confidence = confidence;
+        }
+
+        float width() {
+            return right - left;
+        }
+
+        float height() {
+            return bottom - top;
+        }
+    }
+}
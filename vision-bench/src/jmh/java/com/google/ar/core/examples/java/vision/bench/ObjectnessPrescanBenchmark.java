@@ -0,0 +1,69 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.OutputLayout;
+import com.google.ar.core.examples.java.vision.TensorFormat;
+import com.google.ar.core.examples.java.vision.YoloOutputDecoder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * YOLOv5 decode with and without the objectness pre-scan. Uniform background objectness is the
+ * worst case for the compare; skewed is what a trained model writes, nearly all of it close to
+ * zero, with live rows in short runs around each object.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ObjectnessPrescanBenchmark {
+
+    @Param({"UNIFORM", "SKEWED"})
+    public String distribution;
+
+    @Param({"0.001", "0.01", "0.05"})
+    public double density;
+
+    @Param({"false", "true"})
+    public boolean quantized;
+
+    private YoloOutputDecoder bulk;
+    private YoloOutputDecoder prescan;
+
+    @Setup
+    public void setUp() {
+        float[] tensor = distribution.equals("SKEWED")
+                ? SyntheticOutputs.skewedTensor(density, 42L)
+                : SyntheticOutputs.tensor(density, 42L);
+        bulk = newDecoder(tensor);
+        prescan = newDecoder(tensor);
+        prescan.setObjectnessPrescan(true);
+    }
+
+    private YoloOutputDecoder newDecoder(float[] tensor) {
+        TensorFormat format = quantized ? SyntheticOutputs.UINT8 : TensorFormat.FLOAT32;
+        YoloOutputDecoder decoder = new YoloOutputDecoder(OutputLayout.YOLO_V5, SyntheticOutputs.ROWS,
+                SyntheticOutputs.CLASSES, SyntheticOutputs.INPUT_SIZE, format);
+        if (quantized) {
+            decoder.getOutputBuffer().put(SyntheticOutputs.quantize(tensor));
+        } else {
+            decoder.getOutputBuffer().asFloatBuffer().put(tensor);
+        }
+        return decoder;
+    }
+
+    @Benchmark
+    public int bulkCopy() {
+        return bulk.decode(SyntheticOutputs.CONF_THRESHOLD);
+    }
+
+    @Benchmark
+    public int objectnessPrescan() {
+        return prescan.decode(SyntheticOutputs.CONF_THRESHOLD);
+    }
+}
@@ -0,0 +1,68 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.OutputLayout;
+import com.google.ar.core.examples.java.vision.TensorFormat;
+import com.google.ar.core.examples.java.vision.YoloOutputDecoder;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Serial decode against decode split across a fork-join pool, for a few pool sizes and serial
+ * cutoffs. Threads 0 is the serial baseline. The answer depends on the core count of the machine,
+ * so run it on the target device class.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ParallelDecodeBenchmark {
+
+    @Param({"0.01", "0.2"})
+    public double density;
+
+    @Param({"YOLO_V5", "YOLO_V8"})
+    public OutputLayout layout;
+
+    // Pool threads besides the caller; 0 decodes serially
+    @Param({"0", "1", "3"})
+    public int threads;
+
+    @Param({"1024", "4096"})
+    public int serialCutoff;
+
+    private YoloOutputDecoder decoder;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        decoder = new YoloOutputDecoder(layout, SyntheticOutputs.ROWS, SyntheticOutputs.CLASSES,
+                SyntheticOutputs.INPUT_SIZE, TensorFormat.FLOAT32);
+        decoder.setMaxCandidates(200);
+        float[] tensor = layout == OutputLayout.YOLO_V5
+                ? SyntheticOutputs.tensor(density, 42L)
+                : SyntheticOutputs.tensorV8(density, 42L);
+        decoder.getOutputBuffer().asFloatBuffer().put(tensor);
+        if (threads > 0) {
+            pool = new ForkJoinPool(threads);
+            decoder.setParallelism(pool, serialCutoff);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    @Benchmark
+    public int decode() {
+        return decoder.decode(SyntheticOutputs.CONF_THRESHOLD);
+    }
+}
@@ -0,0 +1,74 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.CapturedFrame;
+import com.google.ar.core.examples.java.vision.CapturedFramePool;
+import com.google.ar.core.examples.java.vision.DetectionBatch;
+import com.google.ar.core.examples.java.vision.Detector;
+import com.google.ar.core.examples.java.vision.ReplayEngine;
+import com.google.ar.core.examples.java.vision.VisionPipeline;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * One frame through the whole {@link VisionPipeline}, from capture copy to results, with a
+ * {@link ReplayEngine} standing in for the model. Runs without any model runtime.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class PipelineBenchmark {
+
+    // Simulated model time; 0 measures the pipeline's own overhead
+    @Param({"0", "20"})
+    public int inferenceMillis;
+
+    private final SyntheticFrame source = new SyntheticFrame(640, 480, 2, 160, 120, 42L);
+    private final CapturedFramePool pool = new CapturedFramePool(VisionPipeline.MAX_FRAMES_IN_FLIGHT + 1);
+    private final BlockingQueue<DetectionBatch> results = new LinkedBlockingQueue<>();
+    private VisionPipeline pipeline;
+
+    @Setup
+    public void setUp() {
+        float[] tensor = SyntheticOutputs.tensor(0.01, 42L);
+        ByteBuffer tensors = ByteBuffer.allocateDirect(4 * tensor.length).order(ByteOrder.nativeOrder());
+        tensors.asFloatBuffer().put(tensor);
+        ReplayEngine engine = new ReplayEngine(
+                new int[] {1, SyntheticOutputs.INPUT_SIZE, SyntheticOutputs.INPUT_SIZE, 3},
+                new int[] {1, SyntheticOutputs.ROWS, SyntheticOutputs.COLUMNS}, tensors);
+        engine.setLatencyNanos(TimeUnit.MILLISECONDS.toNanos(inferenceMillis));
+
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < SyntheticOutputs.CLASSES; i++) labels.add("class" + i);
+        pipeline = new VisionPipeline(new Detector(engine, labels), results::add);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Benchmark
+    public int endToEnd() throws InterruptedException {
+        CapturedFrame frame = pool.acquire();
+        frame.copyFrom(source, source);
+        pipeline.submit(frame);
+        DetectionBatch batch = results.take();
+        int size = batch.size();
+        batch.release();
+        return size;
+    }
+}
@@ -0,0 +1,58 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.GridNms;
+import com.google.ar.core.examples.java.vision.YoloOutputDecoder;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Decode plus NMS on a real model output instead of a synthetic one.
+ *
+ * <p>Reads a raw dump of one output tensor (25200x24 little-endian float32, as written by the
+ * interpreter) from the {@code vision.bench.recordedOutput} system property. Only run when the
+ * build is given {@code -PrecordedOutput=<file>}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class RecordedDecodeBenchmark {
+    static final String PROPERTY = "vision.bench.recordedOutput";
+
+    private YoloOutputDecoder decoder;
+    private GridNms nms;
+
+    @Setup
+    public void setUp() throws IOException {
+        String path = System.getProperty(PROPERTY);
+        if (path == null) {
+            throw new IllegalStateException("Set -D" + PROPERTY + "=<raw output tensor file>");
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        int expected = 4 * SyntheticOutputs.ROWS * SyntheticOutputs.COLUMNS;
+        if (bytes.remaining() != expected) {
+            throw new IllegalStateException(path + " has " + bytes.remaining() + " bytes, expected " + expected);
+        }
+        decoder = new YoloOutputDecoder(SyntheticOutputs.ROWS, SyntheticOutputs.COLUMNS,
+                SyntheticOutputs.INPUT_SIZE);
+        decoder.getOutputBuffer().asFloatBuffer().put(bytes.asFloatBuffer());
+        nms = new GridNms(SyntheticOutputs.INPUT_SIZE);
+    }
+
+    @Benchmark
+    public int decodeAndNms() {
+        int count = decoder.decode(SyntheticOutputs.CONF_THRESHOLD);
+        return nms.run(decoder.getBoxes(), decoder.getScores(), count, SyntheticOutputs.IOU_THRESHOLD);
+    }
+}
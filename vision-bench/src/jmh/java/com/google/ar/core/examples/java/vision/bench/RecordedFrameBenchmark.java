@@ -0,0 +1,58 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.DepthSampler;
+import com.google.ar.core.examples.java.vision.FrameRecording;
+import com.google.ar.core.examples.java.vision.ModelInput;
+import com.google.ar.core.examples.java.vision.RecordedFrame;
+import com.google.ar.core.examples.java.vision.YuvConverter;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Conversion and depth sampling over the frames of a real recording, cycling through them.
+ *
+ * <p>Reads the recording named by the {@code vision.bench.recording} system property. Only run
+ * when the build is given {@code -Precording=<file.vrec>}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class RecordedFrameBenchmark {
+    static final String PROPERTY = "vision.bench.recording";
+
+    private FrameRecording recording;
+    private final RecordedFrame frame = new RecordedFrame();
+    private final YuvConverter converter = new YuvConverter();
+    private final ModelInput input = new ModelInput(SyntheticOutputs.INPUT_SIZE);
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        String path = System.getProperty(PROPERTY);
+        if (path == null) throw new IllegalStateException("Set -D" + PROPERTY + "=<recording>");
+        recording = FrameRecording.open(Paths.get(path));
+        if (recording.getFrameCount() == 0) throw new IllegalStateException(path + " has no frames");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        recording.close();
+    }
+
+    @Benchmark
+    public float toTensorAndDepth() {
+        recording.read(next, frame);
+        next = (next + 1) % recording.getFrameCount();
+        converter.toTensor(frame, input);
+        return DepthSampler.distanceAt(frame, 0.5f, 0.5f);
+    }
+}
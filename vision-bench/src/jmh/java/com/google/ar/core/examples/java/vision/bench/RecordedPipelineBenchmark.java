@@ -0,0 +1,79 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.DetectionBatch;
+import com.google.ar.core.examples.java.vision.Detector;
+import com.google.ar.core.examples.java.vision.FrameRecording;
+import com.google.ar.core.examples.java.vision.ReplayEngine;
+import com.google.ar.core.examples.java.vision.ReplayPlayer;
+import com.google.ar.core.examples.java.vision.VisionPipeline;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A whole recording replayed through the {@link VisionPipeline} at full speed, every frame
+ * processed, with a {@link ReplayEngine} standing in for the model. Reports the time per replay.
+ *
+ * <p>Reads the recording named by the {@code vision.bench.recording} system property. Only run
+ * when the build is given {@code -Precording=<file.vrec>}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class RecordedPipelineBenchmark {
+
+    // Simulated model time; 0 measures the pipeline's own overhead
+    @Param({"0", "20"})
+    public int inferenceMillis;
+
+    private FrameRecording recording;
+    private Detector detector;
+    private VisionPipeline pipeline;
+
+    @Setup
+    public void setUp() throws IOException {
+        String property = RecordedFrameBenchmark.PROPERTY;
+        String path = System.getProperty(property);
+        if (path == null) throw new IllegalStateException("Set -D" + property + "=<recording>");
+        recording = FrameRecording.open(Paths.get(path));
+        if (recording.getFrameCount() == 0) throw new IllegalStateException(path + " has no frames");
+
+        float[] tensor = SyntheticOutputs.tensor(0.01, 42L);
+        ByteBuffer tensors = ByteBuffer.allocateDirect(4 * tensor.length).order(ByteOrder.nativeOrder());
+        tensors.asFloatBuffer().put(tensor);
+        ReplayEngine engine = new ReplayEngine(
+                new int[] {1, SyntheticOutputs.INPUT_SIZE, SyntheticOutputs.INPUT_SIZE, 3},
+                new int[] {1, SyntheticOutputs.ROWS, SyntheticOutputs.COLUMNS}, tensors);
+        engine.setLatencyNanos(TimeUnit.MILLISECONDS.toNanos(inferenceMillis));
+
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < SyntheticOutputs.CLASSES; i++) labels.add("class" + i);
+        detector = new Detector(engine, labels);
+        pipeline = new VisionPipeline(detector, DetectionBatch::release);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pipeline.shutdown();
+        detector.close();
+        recording.close();
+    }
+
+    @Benchmark
+    public int replay() throws InterruptedException {
+        return new ReplayPlayer(recording, false).play(pipeline);
+    }
+}
@@ -0,0 +1,132 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.DepthSource;
+import com.google.ar.core.examples.java.vision.FrameSource;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/** Seeded random YUV_420_888 frame plus DEPTH16 image, laid out like an ARCore camera image. */
+final class SyntheticFrame implements FrameSource, DepthSource {
+    private final int width;
+    private final int height;
+    private final int uvPixelStride;
+    private final int uvRowStride;
+    private final ByteBuffer yPlane;
+    private final ByteBuffer uPlane;
+    private final ByteBuffer vPlane;
+
+    private final int depthWidth;
+    private final int depthHeight;
+    private final ByteBuffer depth;
+
+    /**
+     * @param uvPixelStride 2 for interleaved chroma (what ARCore delivers), 1 for planar
+     */
+    SyntheticFrame(int width, int height, int uvPixelStride, int depthWidth, int depthHeight,
+                   long seed) {
+        Random random = new Random(seed);
+        this.width = width;
+        this.height = height;
+        this.uvPixelStride = uvPixelStride;
+        this.uvRowStride = width / 2 * uvPixelStride;
+        this.yPlane = randomBytes(width * height, random);
+        if (uvPixelStride == 2) {
+            // Interleaved: U and V are views of one VU buffer, one byte apart
+            ByteBuffer vu = randomBytes(width * height / 2, random);
+            this.vPlane = sliceFrom(vu, 0, vu.capacity() - 1);
+            this.uPlane = sliceFrom(vu, 1, vu.capacity() - 1);
+        } else {
+            this.uPlane = randomBytes(width * height / 4, random);
+            this.vPlane = randomBytes(width * height / 4, random);
+        }
+
+        this.depthWidth = depthWidth;
+        this.depthHeight = depthHeight;
+        this.depth = ByteBuffer.allocateDirect(2 * depthWidth * depthHeight).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < depthWidth * depthHeight; i++) {
+            // 0.3 m - 8 m, the range the depth API reports indoors
+            depth.putShort((short) (300 + random.nextInt(7700)));
+        }
+        depth.rewind();
+    }
+
+    private static ByteBuffer randomBytes(int size, Random random) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.put(bytes).rewind();
+        return buffer;
+    }
+
+    private static ByteBuffer sliceFrom(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset).limit(offset + length);
+        return view.slice();
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long getTimestampNs() {
+        return 0L;
+    }
+
+    @Override
+    public ByteBuffer getYPlane() {
+        return yPlane;
+    }
+
+    @Override
+    public ByteBuffer getUPlane() {
+        return uPlane;
+    }
+
+    @Override
+    public ByteBuffer getVPlane() {
+        return vPlane;
+    }
+
+    @Override
+    public int getYRowStride() {
+        return width;
+    }
+
+    @Override
+    public int getUvRowStride() {
+        return uvRowStride;
+    }
+
+    @Override
+    public int getUvPixelStride() {
+        return uvPixelStride;
+    }
+
+    @Override
+    public int getDepthWidth() {
+        return depthWidth;
+    }
+
+    @Override
+    public int getDepthHeight() {
+        return depthHeight;
+    }
+
+    @Override
+    public int getDepthRowStride() {
+        return 2 * depthWidth;
+    }
+
+    @Override
+    public ByteBuffer getDepthBuffer() {
+        return depth;
+    }
+}
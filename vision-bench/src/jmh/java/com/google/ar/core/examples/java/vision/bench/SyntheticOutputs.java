@@ -0,0 +1,127 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.TensorFormat;
+import java.util.Random;
+
+/** Seeded YOLO output tensors and candidate lists for the decode and NMS benchmarks. */
+final class SyntheticOutputs {
+    static final int ROWS = 25200;
+    static final int CLASSES = 19;
+    static final int COLUMNS = CLASSES + 5;
+    static final int INPUT_SIZE = 640;
+    static final float CONF_THRESHOLD = 0.5f;
+    static final float IOU_THRESHOLD = 0.45f;
+    // What a full-integer export typically uses for 0-1 outputs
+    static final TensorFormat UINT8 = TensorFormat.quantized(TensorFormat.Type.UINT8, 1f / 255f, 0);
+
+    private SyntheticOutputs() {}
+
+    /**
+     * A {@code ROWS x COLUMNS} tensor in which about {@code density} of the rows pass the
+     * confidence threshold; the rest have objectness below it, like real background anchors.
+     */
+    static float[] tensor(double density, long seed) {
+        Random random = new Random(seed);
+        float[] output = new float[ROWS * COLUMNS];
+        for (int row = 0, base = 0; row < ROWS; row++, base += COLUMNS) {
+            boolean candidate = random.nextDouble() < density;
+            output[base] = random.nextFloat();
+            output[base + 1] = random.nextFloat();
+            output[base + 2] = 0.02f + 0.3f * random.nextFloat();
+            output[base + 3] = 0.02f + 0.3f * random.nextFloat();
+            output[base + 4] = candidate ? 0.55f + 0.45f * random.nextFloat() : 0.5f * random.nextFloat();
+            for (int c = 0; c < CLASSES; c++) output[base + 5 + c] = 0.3f * random.nextFloat();
+            if (candidate) output[base + 5 + random.nextInt(CLASSES)] = 0.55f + 0.45f * random.nextFloat();
+        }
+        return output;
+    }
+
+    /**
+     * Like {@link #tensor}, with objectness spread the way a trained model's is: background
+     * objectness is the sigmoid of a logit around -6, so nearly all of it sits close to zero, and
+     * live rows come in runs of three, the neighbouring anchors around one object.
+     */
+    static float[] skewedTensor(double density, long seed) {
+        Random random = new Random(seed);
+        float[] output = new float[ROWS * COLUMNS];
+        int runLeft = 0;
+        for (int row = 0, base = 0; row < ROWS; row++, base += COLUMNS) {
+            if (runLeft == 0 && random.nextDouble() < density / 3) runLeft = 3;
+            boolean candidate = runLeft > 0;
+            if (candidate) runLeft--;
+            output[base] = random.nextFloat();
+            output[base + 1] = random.nextFloat();
+            output[base + 2] = 0.02f + 0.3f * random.nextFloat();
+            output[base + 3] = 0.02f + 0.3f * random.nextFloat();
+            double logit = -6.0 + 2.0 * random.nextGaussian();
+            output[base + 4] = candidate
+                    ? 0.55f + 0.45f * random.nextFloat()
+                    : Math.min(0.49f, (float) (1.0 / (1.0 + Math.exp(-logit))));
+            for (int c = 0; c < CLASSES; c++) output[base + 5 + c] = 0.3f * random.nextFloat();
+            if (candidate) output[base + 5 + random.nextInt(CLASSES)] = 0.55f + 0.45f * random.nextFloat();
+        }
+        return output;
+    }
+
+    /**
+     * The same anchors as {@link #tensor} in the transposed YOLOv8 layout, {@code (4 + CLASSES) x
+     * ROWS} without objectness. Background anchors still have every class score below threshold.
+     */
+    static float[] tensorV8(double density, long seed) {
+        float[] v5 = tensor(density, seed);
+        float[] output = new float[(4 + CLASSES) * ROWS];
+        for (int row = 0, base = 0; row < ROWS; row++, base += COLUMNS) {
+            for (int a = 0; a < 4; a++) output[a * ROWS + row] = v5[base + a];
+            for (int c = 0; c < CLASSES; c++) output[(4 + c) * ROWS + row] = v5[base + 5 + c];
+        }
+        return output;
+    }
+
+    /** {@code tensor} quantized to {@link #UINT8}, as the int8 export of the model would write it. */
+    static byte[] quantize(float[] tensor) {
+        byte[] quantized = new byte[tensor.length];
+        for (int i = 0; i < tensor.length; i++) {
+            int q = Math.round(tensor[i] / UINT8.scale) + UINT8.zeroPoint;
+            quantized[i] = (byte) Math.max(0, Math.min(255, q));
+        }
+        return quantized;
+    }
+
+    /**
+     * {@code count} candidate boxes (left, top, right, bottom in input pixels) clustered around a
+     * few objects, so NMS has real overlaps to suppress, plus their scores.
+     */
+    static void candidates(int count, long seed, float[] boxes, float[] scores) {
+        candidates(count, seed, boxes, scores, null);
+    }
+
+    /**
+     * Like {@link #candidates(int, long, float[], float[])}, also filling {@code classIds}: each
+     * object has a class, and a quarter of its boxes carry a second one, the way a person and the
+     * bicycle under them overlap.
+     */
+    static void candidates(int count, long seed, float[] boxes, float[] scores, int[] classIds) {
+        Random random = new Random(seed);
+        // Own stream, so the boxes are the same with or without class ids
+        Random classRandom = new Random(seed + 1);
+        int objects = Math.max(1, count / 20);
+        float[] centers = new float[2 * objects];
+        for (int i = 0; i < centers.length; i++) centers[i] = 40f + random.nextFloat() * (INPUT_SIZE - 80f);
+        for (int i = 0; i < count; i++) {
+            int object = random.nextInt(objects);
+            float cx = centers[2 * object] + (float) random.nextGaussian() * 8f;
+            float cy = centers[2 * object + 1] + (float) random.nextGaussian() * 8f;
+            float w = 20f + random.nextFloat() * 60f;
+            float h = 20f + random.nextFloat() * 60f;
+            boxes[4 * i] = cx - w / 2f;
+            boxes[4 * i + 1] = cy - h / 2f;
+            boxes[4 * i + 2] = cx + w / 2f;
+            boxes[4 * i + 3] = cy + h / 2f;
+            scores[i] = CONF_THRESHOLD + random.nextFloat() * (1f - CONF_THRESHOLD);
+            if (classIds != null) {
+                int objectClass = object % CLASSES;
+                classIds[i] = classRandom.nextInt(4) == 0 ? (objectClass + 1) % CLASSES : objectClass;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.GridNms;
+import com.google.ar.core.examples.java.vision.YoloOutputDecoder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Decode plus NMS with every candidate kept against a top-K bound, from a clean frame up to a
+ * very noisy one. With the bound, the NMS share should stay flat as density grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class TopKBenchmark {
+
+    @Param({"0.01", "0.05", "0.2"})
+    public double density;
+
+    // 0 keeps every candidate
+    @Param({"0", "200"})
+    public int maxCandidates;
+
+    private YoloOutputDecoder decoder;
+    private final GridNms nms = new GridNms(SyntheticOutputs.INPUT_SIZE);
+
+    @Setup
+    public void setUp() {
+        decoder = new YoloOutputDecoder(SyntheticOutputs.ROWS, SyntheticOutputs.COLUMNS,
+                SyntheticOutputs.INPUT_SIZE);
+        decoder.setMaxCandidates(maxCandidates);
+        decoder.getOutputBuffer().asFloatBuffer().put(SyntheticOutputs.tensor(density, 42L));
+    }
+
+    @Benchmark
+    public int decodeAndNms() {
+        int count = decoder.decode(SyntheticOutputs.CONF_THRESHOLD);
+        return nms.run(decoder.getBoxes(), decoder.getScores(), count, SyntheticOutputs.IOU_THRESHOLD);
+    }
+}
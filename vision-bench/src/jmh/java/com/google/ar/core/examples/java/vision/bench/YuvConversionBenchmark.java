@@ -0,0 +1,97 @@
+package com.google.ar.core.examples.java.vision.bench;
+
+import com.google.ar.core.examples.java.vision.ModelInput;
+import com.google.ar.core.examples.java.vision.YuvConverter;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Camera frame conversion: to ARGB pixels, straight to the 640x640 model input, and the original
+ * per-pixel float formula as a reference for the fixed-point kernels.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class YuvConversionBenchmark {
+
+    @Param({"640x480", "1280x720"})
+    public String resolution;
+
+    // 2 = interleaved chroma like ARCore delivers, 1 = planar
+    @Param({"2", "1"})
+    public int uvPixelStride;
+
+    @Param({"1", "4"})
+    public int stripes;
+
+    private SyntheticFrame frame;
+    private YuvConverter converter;
+    private ModelInput input;
+    private int[] argb;
+
+    @Setup
+    public void setUp() {
+        String[] size = resolution.split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+        frame = new SyntheticFrame(width, height, uvPixelStride, 160, 120, 42L);
+        converter = new YuvConverter();
+        converter.setStripeCount(stripes);
+        input = new ModelInput(SyntheticOutputs.INPUT_SIZE);
+        argb = new int[width * height];
+    }
+
+    @Benchmark
+    public int[] toArgb() {
+        converter.toArgb(frame, argb);
+        return argb;
+    }
+
+    @Benchmark
+    public ModelInput toTensor() {
+        converter.toTensor(frame, input);
+        return input;
+    }
+
+    /** The float conversion toArgb replaced, reading the planes per pixel. Single-threaded. */
+    @Benchmark
+    public int[] floatReference() {
+        ByteBuffer yBuffer = frame.getYPlane();
+        ByteBuffer uBuffer = frame.getUPlane();
+        ByteBuffer vBuffer = frame.getVPlane();
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int yIdx = y * frame.getYRowStride() + x;
+                int uvIdx = (y / 2) * frame.getUvRowStride() + (x / 2) * frame.getUvPixelStride();
+                argb[y * width + x] = floatYuvToArgb(yBuffer.get(yIdx), uBuffer.get(uvIdx), vBuffer.get(uvIdx));
+            }
+        }
+        return argb;
+    }
+
+    private static int floatYuvToArgb(byte yByte, byte uByte, byte vByte) {
+        int Y = (yByte & 0xFF);
+        int U = (uByte & 0xFF) - 128;
+        int V = (vByte & 0xFF) - 128;
+
+        int r = (int) (Y + 1.370705f * V);
+        int g = (int) (Y - 0.337633f * U - 0.698001f * V);
+        int b = (int) (Y + 1.732446f * U);
+
+        r = Math.max(0, Math.min(255, r));
+        g = Math.max(0, Math.min(255, g));
+        b = Math.max(0, Math.min(255, b));
+
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+}
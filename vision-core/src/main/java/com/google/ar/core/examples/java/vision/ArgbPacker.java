@@ -0,0 +1,65 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Packs an already letterboxed, square ARGB image into the model input as normalized RGB floats
+ * (assuming Float32 and 0-255 normalization), or as quantized bytes through the input's channel
+ * table. Rows are packed in parallel stripes.
+ */
+public class ArgbPacker {
+    private StripeExecutor stripes = new StripeExecutor(StripeExecutor.defaultStripeCount());
+    private final StripeExecutor.StripeTask packRowsTask = this::packRows;
+
+    // The call in progress
+    private int[] pixels;
+    private ModelInput input;
+
+    /** Number of row stripes packed in parallel; 1 packs on the calling thread. */
+    public void setStripeCount(int stripeCount) {
+        stripes = new StripeExecutor(stripeCount);
+    }
+
+    /** Packs {@code targetSize * targetSize} pixels, row by row, into {@code out}. */
+    public void pack(int[] pixels, ModelInput out) {
+        out.prepareStripes(stripes.getStripeCount());
+        this.pixels = pixels;
+        this.input = out;
+        stripes.run(out.targetSize, packRowsTask);
+        this.pixels = null;
+        this.input = null;
+    }
+
+    private void packRows(int stripe, int rowStart, int rowEnd) {
+        if (input.isQuantized()) {
+            packQuantizedRows(stripe, rowStart, rowEnd);
+            return;
+        }
+        int[] intValues = pixels;
+        int targetSize = input.targetSize;
+        FloatBuffer floats = input.stripeFloats(stripe);
+        floats.position(rowStart * targetSize * 3);
+        for (int i = rowStart * targetSize, end = rowEnd * targetSize; i < end; i++) {
+            int pixelValue = intValues[i];
+            floats.put(((pixelValue >> 16) & 0xFF) / 255.0f);
+            floats.put(((pixelValue >> 8) & 0xFF) / 255.0f);
+            floats.put((pixelValue & 0xFF) / 255.0f);
+        }
+    }
+
+    // uint8/int8 input: one table lookup per channel, no float math
+    private void packQuantizedRows(int stripe, int rowStart, int rowEnd) {
+        int[] intValues = pixels;
+        int targetSize = input.targetSize;
+        byte[] table = input.channelTable;
+        ByteBuffer bytes = input.stripeBytes(stripe);
+        bytes.position(rowStart * targetSize * 3);
+        for (int i = rowStart * targetSize, end = rowEnd * targetSize; i < end; i++) {
+            int pixelValue = intValues[i];
+            bytes.put(table[(pixelValue >> 16) & 0xFF]);
+            bytes.put(table[(pixelValue >> 8) & 0xFF]);
+            bytes.put(table[pixelValue & 0xFF]);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Copy of one camera frame and its depth image, taken the moment the frame was acquired so the
+ * source images could be closed right away.
+ *
+ * <p>Frames are pooled by {@link CapturedFramePool}; the direct buffers are kept and only grow if
+ * the camera or depth resolution does. Whoever holds a frame last calls {@link #release()}.
+ */
+public class CapturedFrame implements PipelineFrame {
+    private final CapturedFramePool pool;
+    // Guarded by the pool
+    boolean inPool = true;
+
+    private long timestampNs;
+
+    // Camera pose at capture time: tx, ty, tz, qx, qy, qz, qw
+    private final float[] pose = {0f, 0f, 0f, 0f, 0f, 0f, 1f};
+
+    // YUV_420_888 camera planes with the strides they were captured with
+    private int width;
+    private int height;
+    private ByteBuffer yPlane;
+    private ByteBuffer uPlane;
+    private ByteBuffer vPlane;
+    private int yRowStride;
+    private int uvRowStride;
+    private int uvPixelStride;
+
+    // DEPTH16 image, millimetres per sample
+    private int depthWidth;
+    private int depthHeight;
+    private int depthRowStride;
+    private ByteBuffer depth;
+
+    CapturedFrame(CapturedFramePool pool) {
+        this.pool = pool;
+    }
+
+    /** Bulk-copies every plane of {@code frame} and {@code depthImage} into this frame. */
+    public void copyFrom(FrameSource frame, DepthSource depthImage) {
+        timestampNs = frame.getTimestampNs();
+        width = frame.getWidth();
+        height = frame.getHeight();
+        yPlane = copy(frame.getYPlane(), yPlane);
+        uPlane = copy(frame.getUPlane(), uPlane);
+        vPlane = copy(frame.getVPlane(), vPlane);
+        yRowStride = frame.getYRowStride();
+        uvRowStride = frame.getUvRowStride();
+        uvPixelStride = frame.getUvPixelStride();
+
+        depthWidth = depthImage.getDepthWidth();
+        depthHeight = depthImage.getDepthHeight();
+        depthRowStride = depthImage.getDepthRowStride();
+        depth = copy(depthImage.getDepthBuffer(), depth);
+    }
+
+    /** Camera pose as tx, ty, tz, qx, qy, qz, qw; the capturing code writes it in place. */
+    @Override
+    public float[] getPose() {
+        return pose;
+    }
+
+    /**
+     * Gives the frame back to its pool. It must not be used afterwards; releasing it again before
+     * it is acquired again does nothing.
+     */
+    @Override
+    public void release() {
+        pool.release(this);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long getTimestampNs() {
+        return timestampNs;
+    }
+
+    @Override
+    public ByteBuffer getYPlane() {
+        return yPlane;
+    }
+
+    @Override
+    public ByteBuffer getUPlane() {
+        return uPlane;
+    }
+
+    @Override
+    public ByteBuffer getVPlane() {
+        return vPlane;
+    }
+
+    @Override
+    public int getYRowStride() {
+        return yRowStride;
+    }
+
+    @Override
+    public int getUvRowStride() {
+        return uvRowStride;
+    }
+
+    @Override
+    public int getUvPixelStride() {
+        return uvPixelStride;
+    }
+
+    @Override
+    public int getDepthWidth() {
+        return depthWidth;
+    }
+
+    @Override
+    public int getDepthHeight() {
+        return depthHeight;
+    }
+
+    @Override
+    public int getDepthRowStride() {
+        return depthRowStride;
+    }
+
+    @Override
+    public ByteBuffer getDepthBuffer() {
+        return depth;
+    }
+
+    // Copies source into target, reallocating target only if it is too small
+    private static ByteBuffer copy(ByteBuffer source, ByteBuffer target) {
+        source.rewind();
+        if (target == null || target.capacity() < source.remaining()) {
+            target = ByteBuffer.allocateDirect(source.remaining()).order(ByteOrder.nativeOrder());
+        }
+        target.clear();
+        target.put(source);
+        target.flip();
+        source.rewind();
+        return target;
+    }
+}
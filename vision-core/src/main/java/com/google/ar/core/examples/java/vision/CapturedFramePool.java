@@ -0,0 +1,46 @@
+package com.google.ar.core.examples.java.vision;
+
+/**
+ * Fixed-size, thread-safe free list of {@link CapturedFrame}s.
+ *
+ * <p>Unlike {@link DetectionBatchPool} it never allocates past its size: a capture that finds
+ * the pool empty is skipped and counted, which bounds the memory held by frames in flight.
+ */
+public class CapturedFramePool {
+    private final CapturedFrame[] free;
+    private int freeCount;
+
+    private volatile long exhaustions;
+
+    public CapturedFramePool(int size) {
+        free = new CapturedFrame[size];
+        for (int i = 0; i < size; i++) free[i] = new CapturedFrame(this);
+        freeCount = size;
+    }
+
+    /** Returns a free frame, or null (and counts it) if every frame is still in use. */
+    public CapturedFrame acquire() {
+        synchronized (this) {
+            if (freeCount > 0) {
+                CapturedFrame frame = free[--freeCount];
+                free[freeCount] = null;
+                frame.inPool = false;
+                return frame;
+            }
+        }
+        exhaustions++;
+        return null;
+    }
+
+    /** Number of {@link #acquire} calls that found every frame in use. */
+    public long getExhaustions() {
+        return exhaustions;
+    }
+
+    // A frame that is already free is ignored, so a second release cannot duplicate it
+    synchronized void release(CapturedFrame frame) {
+        if (frame.inPool) return;
+        frame.inPool = true;
+        free[freeCount++] = frame;
+    }
+}
@@ -0,0 +1,98 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Which classes a profile cares about, and the minimum score of each.
+ *
+ * <p>Built by label name, but stored as flat per-class arrays so the decoder never touches a
+ * string: {@link #enabledClasses} lists the class indices to include in the argmax, and
+ * {@link #threshold} gives each class its own cutoff. A profile that only needs four of the 19
+ * classes then scores four columns per anchor instead of 19, and the rest never reach NMS.
+ * Immutable, so one instance can be swapped in while other threads decode with the last.
+ */
+public final class ClassFilter {
+    /** Every class at the caller's threshold. */
+    public static final ClassFilter ALL = new ClassFilter(null, null, null);
+
+    // All null for ALL
+    private final List<String> labels;
+    private final boolean[] enabled;
+    // NaN: use the caller's threshold
+    private final float[] thresholds;
+
+    private ClassFilter(List<String> labels, boolean[] enabled, float[] thresholds) {
+        this.labels = labels;
+        this.enabled = enabled;
+        this.thresholds = thresholds;
+    }
+
+    /** Every one of {@code labels} enabled at the caller's threshold, ready to be narrowed. */
+    public static ClassFilter forLabels(List<String> labels) {
+        boolean[] enabled = new boolean[labels.size()];
+        Arrays.fill(enabled, true);
+        float[] thresholds = new float[labels.size()];
+        Arrays.fill(thresholds, Float.NaN);
+        return new ClassFilter(labels, enabled, thresholds);
+    }
+
+    /** A copy with only the named classes enabled. */
+    public ClassFilter only(String... names) {
+        boolean[] newEnabled = new boolean[requireLabels().size()];
+        for (String name : names) newEnabled[classId(name)] = true;
+        return new ClassFilter(labels, newEnabled, thresholds);
+    }
+
+    /** A copy with its own minimum score for the named class; NaN goes back to the default. */
+    public ClassFilter withThreshold(String name, float threshold) {
+        float[] newThresholds = thresholds.clone();
+        newThresholds[classId(name)] = threshold;
+        return new ClassFilter(labels, enabled, newThresholds);
+    }
+
+    public boolean isEnabled(int classId) {
+        return enabled == null || (classId < enabled.length && enabled[classId]);
+    }
+
+    /** Minimum score of {@code classId}, or {@code defaultThreshold} if it has none of its own. */
+    public float threshold(int classId, float defaultThreshold) {
+        if (thresholds == null || classId >= thresholds.length) return defaultThreshold;
+        float threshold = thresholds[classId];
+        return Float.isNaN(threshold) ? defaultThreshold : threshold;
+    }
+
+    /** Indices of the enabled classes among {@code classCount}, in ascending order. */
+    public int[] enabledClasses(int classCount) {
+        int[] classIds = new int[classCount];
+        int count = 0;
+        for (int classId = 0; classId < classCount; classId++) {
+            if (isEnabled(classId)) classIds[count++] = classId;
+        }
+        return Arrays.copyOf(classIds, count);
+    }
+
+    private int classId(String name) {
+        int classId = requireLabels().indexOf(name);
+        if (classId < 0) throw new IllegalArgumentException("Unknown label " + name);
+        return classId;
+    }
+
+    private List<String> requireLabels() {
+        if (labels == null) throw new IllegalStateException("Start from ClassFilter.forLabels");
+        return labels;
+    }
+
+    @Override
+    public String toString() {
+        if (labels == null) return "ClassFilter[all]";
+        StringBuilder sb = new StringBuilder("ClassFilter[");
+        for (int classId = 0; classId < enabled.length; classId++) {
+            if (!enabled[classId]) continue;
+            if (sb.length() > 12) sb.append(", ");
+            sb.append(labels.get(classId));
+            if (!Float.isNaN(thresholds[classId])) sb.append('>').append(thresholds[classId]);
+        }
+        return sb.append(']').toString();
+    }
+}
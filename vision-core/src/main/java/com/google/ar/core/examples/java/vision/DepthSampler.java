@@ -0,0 +1,40 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteOrder;
+
+/** Reads distances out of a 16-bit depth image (millimetres per sample). */
+public final class DepthSampler {
+
+    private DepthSampler() {}
+
+    /**
+     * Distance in meters at ({@code x}, {@code y}), given as fractions 0 to 1 of the square model
+     * input (so any input size maps the same way), or -1 when it falls outside the depth image.
+     */
+    public static float distanceAt(DepthSource depthImage, float x, float y) {
+        try {
+            int width = depthImage.getDepthWidth();
+            int height = depthImage.getDepthHeight();
+
+            // Since we center-cropped the camera, we must sample the center-crop of the depth map
+            // 1. Determine the square area of the depth map
+            int size = Math.min(width, height);
+            int offsetX = (width - size) / 2;
+            int offsetY = (height - size) / 2;
+
+            // 2. Map the normalized model coordinate to that square area
+            int cpuX = offsetX + (int) (x * size);
+            int cpuY = offsetY + (int) (y * size);
+
+            if (cpuX < 0 || cpuX >= width || cpuY < 0 || cpuY >= height) return -1f;
+
+            // 3. Absolute read, so no ShortBuffer view is created per sample
+            short depthSample = depthImage.getDepthBuffer().order(ByteOrder.nativeOrder())
+                    .getShort(cpuY * depthImage.getDepthRowStride() + cpuX * 2);
+
+            return (depthSample & 0xFFFF) / 1000.0f; // Distance in Meters
+        } catch (Exception e) {
+            return -1.0f;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteBuffer;
+
+/** A DEPTH16 image as an NIO buffer: one native-order unsigned short in millimetres per sample. */
+public interface DepthSource {
+    int getDepthWidth();
+
+    int getDepthHeight();
+
+    /** Row stride in bytes. */
+    int getDepthRowStride();
+
+    ByteBuffer getDepthBuffer();
+}
@@ -0,0 +1,193 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All detections of one frame, stored as parallel primitive arrays instead of one object per box.
+ *
+ * <p>Batches come from a {@link DetectionBatchPool} and are handed from the detector to the
+ * post-processing (distance and direction) and on to the display, which gives the previous
+ * batch back to the pool once it has a newer one. The arrays only grow when a frame has more
+ * detections than any batch held before, so the detection path stops creating garbage per frame.
+ */
+public class DetectionBatch {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final DetectionBatchPool pool;
+    private int size;
+
+    // Boxes are left, top, right, bottom in raw model-input space (0-640)
+    private float[] boxes;
+    private float[] confidences;
+    private float[] distances;
+    private int[] directions;
+    private int[] classIds;
+    private List<String> labels;
+
+    // Letterbox geometry of the frame these boxes came from
+    private float xOffset;
+    private float yOffset;
+    private float scale = 1f;
+    private float imageWidth = 1f;
+    private float imageHeight = 1f;
+
+    DetectionBatch(DetectionBatchPool pool, int capacity) {
+        this.pool = pool;
+        boxes = new float[4 * capacity];
+        confidences = new float[capacity];
+        distances = new float[capacity];
+        directions = new int[capacity];
+        classIds = new int[capacity];
+    }
+
+    /** Empties the batch and records the frame geometry for {@link #getScreenRect}. */
+    public void reset(List<String> labels, float xOffset, float yOffset, float scale,
+                      float imageWidth, float imageHeight) {
+        this.size = 0;
+        this.labels = labels;
+        this.xOffset = xOffset;
+        this.yOffset = yOffset;
+        this.scale = scale;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+    }
+
+    public void add(float left, float top, float right, float bottom, float confidence, int classId) {
+        if (size == confidences.length) {
+            int capacity = Math.max(4, size * 2);
+            boxes = Arrays.copyOf(boxes, 4 * capacity);
+            confidences = Arrays.copyOf(confidences, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            directions = Arrays.copyOf(directions, capacity);
+            classIds = Arrays.copyOf(classIds, capacity);
+        }
+        int b = 4 * size;
+        boxes[b] = left;
+        boxes[b + 1] = top;
+        boxes[b + 2] = right;
+        boxes[b + 3] = bottom;
+        confidences[size] = confidence;
+        classIds[size] = classId;
+        distances[size] = 0f;
+        directions[size] = Direction.CENTER.ordinal();
+        size++;
+    }
+
+    /** Gives the batch back to its pool. It must not be used afterwards. */
+    public void release() {
+        pool.release(this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public float getLeft(int i) {
+        return boxes[4 * i];
+    }
+
+    public float getTop(int i) {
+        return boxes[4 * i + 1];
+    }
+
+    public float getRight(int i) {
+        return boxes[4 * i + 2];
+    }
+
+    public float getBottom(int i) {
+        return boxes[4 * i + 3];
+    }
+
+    public float getCenterX(int i) {
+        return (boxes[4 * i] + boxes[4 * i + 2]) / 2f;
+    }
+
+    public float getCenterY(int i) {
+        return (boxes[4 * i + 1] + boxes[4 * i + 3]) / 2f;
+    }
+
+    public float getConfidence(int i) {
+        return confidences[i];
+    }
+
+    public int getClassId(int i) {
+        return classIds[i];
+    }
+
+    public String getLabel(int i) {
+        return labels.get(classIds[i]);
+    }
+
+    public float getDistance(int i) {
+        return distances[i];
+    }
+
+    public void setDistance(int i, float distance) {
+        distances[i] = distance;
+    }
+
+    public Direction getDirection(int i) {
+        return DIRECTIONS[directions[i]];
+    }
+
+    public void setDirection(int i, Direction direction) {
+        directions[i] = direction.ordinal();
+    }
+
+    /** Stable in-place sort, closest first. Batches are small, so insertion sort is enough. */
+    public void sortByDistance() {
+        for (int i = 1; i < size; i++) {
+            for (int j = i; j > 0 && distances[j - 1] > distances[j]; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    /**
+     * Maps box {@code i} from model-input space to the overlay, writing left, top, right, bottom
+     * into {@code out} so the overlay can reuse one array for every box.
+     */
+    public float[] getScreenRect(int i, float screenW, float screenH, float[] out) {
+        int b = 4 * i;
+
+        // 1. Remove letterboxing & scaling
+        float x1 = (boxes[b] - xOffset) / scale;
+        float y1 = (boxes[b + 1] - yOffset) / scale;
+        float x2 = (boxes[b + 2] - xOffset) / scale;
+        float y2 = (boxes[b + 3] - yOffset) / scale;
+
+        // 2. Map to actual screen size
+        float scaleX = screenW / imageWidth;
+        float scaleY = screenH / imageHeight;
+        out[0] = x1 * scaleX;
+        out[1] = y1 * scaleY;
+        out[2] = x2 * scaleX;
+        out[3] = y2 * scaleY;
+        return out;
+    }
+
+    private void swap(int a, int b) {
+        for (int k = 0; k < 4; k++) {
+            float box = boxes[4 * a + k];
+            boxes[4 * a + k] = boxes[4 * b + k];
+            boxes[4 * b + k] = box;
+        }
+        float confidence = confidences[a];
+        confidences[a] = confidences[b];
+        confidences[b] = confidence;
+        float distance = distances[a];
+        distances[a] = distances[b];
+        distances[b] = distance;
+        int direction = directions[a];
+        directions[a] = directions[b];
+        directions[b] = direction;
+        int classId = classIds[a];
+        classIds[a] = classIds[b];
+        classIds[b] = classId;
+    }
+}
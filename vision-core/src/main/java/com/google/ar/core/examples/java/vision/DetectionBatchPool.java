@@ -0,0 +1,36 @@
+package com.google.ar.core.examples.java.vision;
+
+/**
+ * Small thread-safe free list of {@link DetectionBatch}es.
+ *
+ * <p>The vision thread acquires batches and the UI thread releases them, so both ends are
+ * synchronized. In steady state only a handful of batches circulate: one being filled, one on
+ * screen and at most one in between.
+ */
+public class DetectionBatchPool {
+    private static final int INITIAL_BATCH_CAPACITY = 32;
+
+    private final DetectionBatch[] free;
+    private int freeCount;
+
+    public DetectionBatchPool(int maxPooled) {
+        free = new DetectionBatch[maxPooled];
+    }
+
+    /** Returns a pooled batch, or a new one if every pooled batch is still in use. */
+    public synchronized DetectionBatch acquire() {
+        if (freeCount > 0) {
+            DetectionBatch batch = free[--freeCount];
+            free[freeCount] = null;
+            return batch;
+        }
+        return new DetectionBatch(this, INITIAL_BATCH_CAPACITY);
+    }
+
+    synchronized void release(DetectionBatch batch) {
+        // Extra batches beyond the pool size are simply left to the GC
+        if (freeCount < free.length) {
+            free[freeCount++] = batch;
+        }
+    }
+}
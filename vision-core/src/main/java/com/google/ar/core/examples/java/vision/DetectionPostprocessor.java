@@ -0,0 +1,116 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Stage 3 of detection: confidence threshold, class argmax and NMS over a raw YOLO output,
+ * producing a pooled {@link DetectionBatch}. Not thread-safe: one instance per decoding thread.
+ */
+public class DetectionPostprocessor {
+    private final List<String> labels;
+    private final float confThreshold;
+    private final float iouThreshold;
+    private final GridNms nms;
+    // Swapped in from any thread; read once per frame
+    private volatile HeadFilter headFilter = HeadFilter.ALL;
+    private volatile ClassFilter classFilter = ClassFilter.ALL;
+    private volatile int maxCandidates;
+    private volatile boolean classAwareNms;
+    private volatile boolean objectnessPrescan;
+    private volatile ForkJoinPool decodePool;
+    private volatile int serialCutoff = Integer.MAX_VALUE;
+
+    // Result batches circulate between the detector, the activity and the overlay
+    private final DetectionBatchPool batchPool = new DetectionBatchPool(4);
+
+    public DetectionPostprocessor(List<String> labels, int inputSize, float confThreshold,
+                                  float iouThreshold) {
+        this.labels = labels;
+        this.confThreshold = confThreshold;
+        this.iouThreshold = iouThreshold;
+        this.nms = new GridNms(inputSize);
+    }
+
+    /** Heads to decode from now on, each at its own threshold; see {@link HeadFilter}. */
+    public void setHeadFilter(HeadFilter headFilter) {
+        this.headFilter = headFilter;
+    }
+
+    /** Classes to decode from now on, each at its own threshold; see {@link ClassFilter}. */
+    public void setClassFilter(ClassFilter classFilter) {
+        this.classFilter = classFilter;
+    }
+
+    /**
+     * Keeps only the {@code maxCandidates} most confident candidates of a frame for NMS; 0 keeps
+     * them all.
+     */
+    public void setMaxCandidates(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Class-aware NMS only lets a box suppress boxes of its own class, so overlapping objects of
+     * different classes (a person on a bicycle) are both kept; see {@link GridNms}. Off by default,
+     * here and in {@link Detector}.
+     */
+    public void setClassAwareNms(boolean classAwareNms) {
+        this.classAwareNms = classAwareNms;
+    }
+
+    /**
+     * Reads the YOLOv5 objectness column first and only copies and scores the rows that pass it;
+     * see {@link YoloOutputDecoder#setObjectnessPrescan}. Off in a new postprocessor;
+     * {@link Detector} turns it on.
+     */
+    public void setObjectnessPrescan(boolean objectnessPrescan) {
+        this.objectnessPrescan = objectnessPrescan;
+    }
+
+    /**
+     * Splits the decode of large heads across {@code pool}; ranges shorter than twice
+     * {@code serialCutoff} anchors stay serial. A null pool decodes serially (the default). See
+     * {@link YoloOutputDecoder#setParallelism}.
+     */
+    public void setParallelDecode(ForkJoinPool pool, int serialCutoff) {
+        this.serialCutoff = serialCutoff;
+        this.decodePool = pool;
+    }
+
+    /**
+     * Thresholds and NMS over the tensor in {@code output}. {@code input} only supplies the
+     * letterbox geometry. The returned batch is owned by the caller.
+     */
+    public DetectionBatch process(ModelInput input, YoloOutputDecoder output) {
+        // 1. The batch remembers the letterbox geometry (80px x offset, scale 1.0 for 480x640)
+        DetectionBatch batch = batchPool.acquire();
+        batch.reset(labels, input.xOffset, input.yOffset, input.scale,
+                input.imageWidth, input.imageHeight);
+
+        // 2. Fill it using the RAW AI-space logic
+        output.setMaxCandidates(maxCandidates);
+        output.setParallelism(decodePool, serialCutoff);
+        output.setObjectnessPrescan(objectnessPrescan);
+        applyNMS(output, output.decode(confThreshold, headFilter, classFilter), batch);
+        return batch;
+    }
+
+    private void applyNMS(YoloOutputDecoder output, int candidateCount, DetectionBatch batch) {
+        float[] boxes = output.getBoxes();
+        float[] scores = output.getScores();
+        int[] classIds = output.getClassIds();
+
+        // Grid NMS keeps the same boxes, in the same confidence order, as the old greedy loop
+        // (per class, if class-aware)
+        int keptCount = nms.run(boxes, scores, classAwareNms ? classIds : null, candidateCount, iouThreshold);
+        int[] kept = nms.getKept();
+
+        for (int k = 0; k < keptCount; k++) {
+            // Boxes are already in raw 640-pixel AI-space without ANY offsets or scaling
+            int i = kept[k];
+            int b = 4 * i;
+            batch.add(boxes[b], boxes[b + 1], boxes[b + 2], boxes[b + 3], scores[i], classIds[i]);
+        }
+    }
+}
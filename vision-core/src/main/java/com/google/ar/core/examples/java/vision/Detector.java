@@ -0,0 +1,246 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * YOLO detection on top of any {@link InferenceEngine}.
+ *
+ * <p>Detection runs in three stages that callers can also drive (and time) one by one:
+ * <ol>
+ *   <li>{@link YuvConverter#toTensor} or {@link ArgbPacker#pack} fills a {@link ModelInput}
+ *   <li>{@link #runInference} runs the engine on it into a {@link YoloOutputDecoder}
+ *   <li>{@link #decode} turns that output into a {@link DetectionBatch}
+ * </ol>
+ * Every stage writes into buffers the caller passes in, so nothing is computed twice. Input size
+ * and output layout come from the engine's tensor shapes.
+ *
+ * <p>If the engine can resize its input, the model can also run below its native size: create
+ * inputs and outputs with {@link #newInput(int)} and {@link #newOutput(int)}, and
+ * {@link #runInference} resizes the engine whenever the input it is given has a different size
+ * than the last one. YOLO heads have one anchor per grid cell at strides 8, 16 and 32, so the
+ * anchor count scales with the input area and the output shape at any multiple of 32 follows from
+ * the native one.
+ */
+public class Detector {
+    private static final float CONF_THRESHOLD = 0.5f;
+    private static final float IOU_THRESHOLD = 0.45f;
+    // No cap on the candidates that go into NMS; setMaxCandidates turns the top-K bound on
+    private static final int MAX_CANDIDATES = 0;
+    // Class-agnostic NMS keeps one box per overlapping group; setClassAwareNms opts out of that
+    private static final boolean CLASS_AWARE_NMS = false;
+    // Same candidates either way, without the bulk copy of 2.4 MB of mostly background rows
+    private static final boolean OBJECTNESS_PRESCAN = true;
+
+    /**
+     * Default for {@link #setParallelDecode}: chunks of at least 4096 anchors, so at 640 only the
+     * 19200-anchor stride-8 head is split, and each chunk is far more work than waking a thread.
+     */
+    public static final int PARALLEL_DECODE_CUTOFF = 4096;
+
+    private final InferenceEngine engine;
+    private final int inputSize;
+    private final int[] outputShape;
+    private final OutputLayout layout;
+    private final TensorFormat inputFormat;
+    private final TensorFormat outputFormat;
+    private final List<String> labels;
+
+    // Size the engine is currently set up for; only touched by the thread running inference
+    private int engineInputSize;
+
+    // Reused output tensor, so inference does not allocate a new 2.4 MB array every frame
+    private YoloOutputDecoder decoder;
+    private final DetectionPostprocessor postprocessor;
+
+    public Detector(InferenceEngine engine, List<String> labels) {
+        this.engine = engine;
+
+        // NHWC input [1, size, size, 3]; the output layout (YOLOv5 or v8) is told by its shape
+        int[] inputShape = engine.getInputShape();
+        if (inputShape.length != 4 || inputShape[1] != inputShape[2] || inputShape[3] != 3) {
+            throw new IllegalArgumentException("Unsupported input shape " + Arrays.toString(inputShape));
+        }
+        this.inputSize = inputShape[1];
+        this.engineInputSize = inputSize;
+        this.outputShape = engine.getOutputShape();
+        this.inputFormat = engine.getInputFormat();
+        this.outputFormat = engine.getOutputFormat();
+        this.labels = labels;
+        this.layout = OutputLayout.detect(outputShape, labels.size());
+
+        decoder = newOutput();
+        if (decoder.getClassCount() != labels.size()) {
+            throw new IllegalArgumentException("Model has " + decoder.getClassCount()
+                    + " classes but there are " + labels.size() + " labels");
+        }
+        postprocessor = new DetectionPostprocessor(labels, inputSize, CONF_THRESHOLD, IOU_THRESHOLD);
+        postprocessor.setMaxCandidates(MAX_CANDIDATES);
+        postprocessor.setClassAwareNms(CLASS_AWARE_NMS);
+        postprocessor.setObjectnessPrescan(OBJECTNESS_PRESCAN);
+    }
+
+    /** Side of the square model input in pixels, as the model was exported. */
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Which of {@code sizes} the model actually runs at, found by resizing the engine to each and
+     * running it once. Slow; call it while loading. Always contains the native size, and leaves
+     * the engine at it.
+     */
+    public int[] probeInputSizes(int[] sizes) {
+        if (!engine.canResizeInput()) return new int[] {inputSize};
+        int[] supported = new int[sizes.length + 1];
+        int count = 0;
+        supported[count++] = inputSize;
+        for (int size : sizes) {
+            if (size == inputSize) continue;
+            try {
+                runInference(newInput(size), newOutput(size));
+                supported[count++] = size;
+            } catch (RuntimeException e) {
+                // Fixed reshapes in the graph, or a size that is not a multiple of the stride
+            }
+        }
+        resizeEngine(inputSize);
+        int[] result = Arrays.copyOf(supported, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /** Class names, indexed by class id; e.g. for {@link ClassFilter#forLabels}. */
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    public InferenceEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Runs inference and decoding on an input that was already letterboxed. The returned batch is
+     * owned by the caller, who must {@link DetectionBatch#release()} it.
+     */
+    public DetectionBatch detect(ModelInput input) {
+        if (decoder.getInputSize() != input.targetSize) decoder = newOutput(input.targetSize);
+        runInference(input, decoder);
+        return decode(input, decoder);
+    }
+
+    /**
+     * Creates an input for stage 1 in the model's input format (float32, or uint8/int8 for a
+     * quantized model), e.g. one per frame in flight.
+     */
+    public ModelInput newInput() {
+        return newInput(inputSize);
+    }
+
+    /** Like {@link #newInput()}, for running the model at {@code size} instead. */
+    public ModelInput newInput(int size) {
+        return new ModelInput(size, inputFormat);
+    }
+
+    /** Creates an output holder for {@link #runInference}, e.g. one per frame in flight. */
+    public YoloOutputDecoder newOutput() {
+        return newOutput(inputSize);
+    }
+
+    /** Like {@link #newOutput()}, for running the model at {@code size} instead. */
+    public YoloOutputDecoder newOutput(int size) {
+        return YoloOutputDecoder.forShape(outputShapeAt(size), outputFormat, labels.size(), size);
+    }
+
+    /**
+     * Stage 2: runs the engine on {@code input}, writing the raw tensor into {@code output}. If
+     * {@code input} has a different size than the previous one, the engine is resized first.
+     */
+    public void runInference(ModelInput input, YoloOutputDecoder output) {
+        if (input.targetSize != engineInputSize) resizeEngine(input.targetSize);
+        input.buffer.rewind();
+        engine.run(input.buffer, output.getOutputBuffer());
+    }
+
+    private void resizeEngine(int size) {
+        engine.resizeInput(new int[] {1, size, size, 3});
+        engineInputSize = size;
+        int[] actual = engine.getOutputShape();
+        if (!Arrays.equals(actual, outputShapeAt(size))) {
+            throw new IllegalStateException("Output at " + size + " is " + Arrays.toString(actual)
+                    + ", expected " + Arrays.toString(outputShapeAt(size)));
+        }
+    }
+
+    // Anchors scale with the input area: 25200 at 640 is 6300 at 320
+    private int[] outputShapeAt(int size) {
+        if (size == inputSize) return outputShape;
+        long anchors = (long) layout.anchorCount(outputShape) * size * size;
+        long nativeArea = (long) inputSize * inputSize;
+        if (size % 32 != 0 || anchors % nativeArea != 0) {
+            throw new IllegalArgumentException("Unsupported input size " + size);
+        }
+        return layout.shape((int) (anchors / nativeArea), layout.classCount(outputShape));
+    }
+
+    /**
+     * Stage 3: thresholds and NMS over the tensor in {@code output}. {@code input} only supplies
+     * the letterbox geometry. The returned batch is owned by the caller.
+     */
+    public DetectionBatch decode(ModelInput input, YoloOutputDecoder output) {
+        return postprocessor.process(input, output);
+    }
+
+    /**
+     * Decodes only the heads {@code filter} enables from the next frame on, e.g.
+     * {@link HeadFilter#NEAR_FIELD} to skip the small-object head. Safe to call from any thread.
+     */
+    public void setHeadFilter(HeadFilter filter) {
+        postprocessor.setHeadFilter(filter);
+    }
+
+    /**
+     * Scores only the classes {@code filter} enables from the next frame on, each at its own
+     * threshold; e.g. a navigation profile that only cares about stairs, doors and cars. Safe to
+     * call from any thread.
+     */
+    public void setClassFilter(ClassFilter filter) {
+        postprocessor.setClassFilter(filter);
+    }
+
+    /** Top-K bound on the candidates that go into NMS; 0 or less keeps every candidate. */
+    public void setMaxCandidates(int maxCandidates) {
+        postprocessor.setMaxCandidates(maxCandidates);
+    }
+
+    /**
+     * Class-aware NMS keeps overlapping boxes of different classes; class-agnostic NMS (the
+     * default) keeps only the most confident of them. Safe to call from any thread.
+     */
+    public void setClassAwareNms(boolean classAware) {
+        postprocessor.setClassAwareNms(classAware);
+    }
+
+    /**
+     * Turns the YOLOv5 objectness pre-scan (on by default) on or off; the candidates are the same
+     * either way. Safe to call from any thread.
+     */
+    public void setObjectnessPrescan(boolean prescan) {
+        postprocessor.setObjectnessPrescan(prescan);
+    }
+
+    /**
+     * Decodes large heads in chunks on {@code pool}, e.g. {@link ForkJoinPool#commonPool()}, to use
+     * the cores that sit idle between inferences; ranges shorter than twice {@code serialCutoff}
+     * anchors stay serial. Null goes back to serial decoding. Safe to call from any thread.
+     */
+    public void setParallelDecode(ForkJoinPool pool, int serialCutoff) {
+        postprocessor.setParallelDecode(pool, serialCutoff);
+    }
+
+    /** Closes the engine. */
+    public void close() {
+        engine.close();
+    }
+}
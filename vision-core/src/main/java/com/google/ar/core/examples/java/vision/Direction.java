@@ -0,0 +1,19 @@
+package com.google.ar.core.examples.java.vision;
+
+/** Horizontal third of the model input a detection is centered in. */
+public enum Direction {
+    LEFT,
+    CENTER,
+    RIGHT;
+
+    /** Direction of a box centered at {@code centerX} in an input {@code width} pixels wide. */
+    public static Direction of(float centerX, float width) {
+        if (centerX < width * 0.33f) {
+            return LEFT;
+        } else if (centerX > width * 0.66f) {
+            return RIGHT;
+        } else {
+            return CENTER;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Picks the fastest {@link EngineConfig} on this device by timing a few inferences with each.
+ *
+ * <p>Every candidate gets its own engine, a couple of warm-up runs (first runs include delegate
+ * compilation) and then a few timed runs on a zero input; the candidate with the lowest median
+ * wins. Candidates that fail to build or run are skipped, and one whose warm-up is already far
+ * slower than the best so far is dropped early, so calibration stays in the seconds range.
+ */
+public class EngineCalibrator {
+    private static final Logger LOG = Logger.getLogger("EngineCalibrator");
+
+    private static final int WARMUP_RUNS = 2;
+    private static final int TIMED_RUNS = 3;
+    // A candidate whose warm-up is this many times slower than the best median is not timed
+    private static final int EARLY_OUT_FACTOR = 3;
+
+    /** Creates the engine for a candidate; throws if the backend is not available. */
+    public interface EngineFactory {
+        InferenceEngine create(EngineConfig config) throws Exception;
+    }
+
+    /** The winning configuration and its median inference time. */
+    public static final class Result {
+        public final EngineConfig config;
+        public final long medianNanos;
+
+        Result(EngineConfig config, long medianNanos) {
+            this.config = config;
+            this.medianNanos = medianNanos;
+        }
+    }
+
+    private final EngineFactory factory;
+
+    public EngineCalibrator(EngineFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * The usual candidates: XNNPACK with 1 to 8 threads (capped at {@code cores}), plain CPU
+     * kernels, NNAPI, and the GPU delegate if {@code gpuAvailable}.
+     */
+    public static List<EngineConfig> candidates(int cores, boolean gpuAvailable) {
+        int maxThreads = Math.max(1, Math.min(8, cores));
+        List<EngineConfig> candidates = new ArrayList<>();
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            candidates.add(new EngineConfig(EngineConfig.Backend.XNNPACK, threads));
+        }
+        candidates.add(new EngineConfig(EngineConfig.Backend.CPU, Math.min(4, maxThreads)));
+        candidates.add(new EngineConfig(EngineConfig.Backend.NNAPI, Math.min(4, maxThreads)));
+        if (gpuAvailable) candidates.add(new EngineConfig(EngineConfig.Backend.GPU, 1));
+        return candidates;
+    }
+
+    /** Stable key for a model file, so a profile is only reused for the model it was made with. */
+    public static String modelHash(ByteBuffer model) {
+        // Chunked copy: CRC32.update(ByteBuffer) needs API 26 on Android
+        CRC32 crc = new CRC32();
+        ByteBuffer bytes = model.duplicate();
+        bytes.rewind();
+        byte[] chunk = new byte[64 * 1024];
+        while (bytes.hasRemaining()) {
+            int length = Math.min(chunk.length, bytes.remaining());
+            bytes.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        return Long.toHexString(crc.getValue()) + "-" + model.capacity();
+    }
+
+    /** Times every candidate and returns the fastest, or null if none of them worked. */
+    public Result calibrate(List<EngineConfig> candidates) {
+        Result best = null;
+        for (EngineConfig config : candidates) {
+            long median = time(config, best != null ? best.medianNanos * EARLY_OUT_FACTOR : Long.MAX_VALUE);
+            if (median < 0) continue;
+            LOG.info("Calibration " + config + ": " + median / 1000 + " us");
+            if (best == null || median < best.medianNanos) best = new Result(config, median);
+        }
+        return best;
+    }
+
+    // Median run time of one candidate, or -1 if it failed or was cut off early
+    private long time(EngineConfig config, long cutoffNanos) {
+        InferenceEngine engine;
+        try {
+            engine = factory.create(config);
+        } catch (Exception | LinkageError e) {
+            LOG.log(Level.INFO, "Calibration " + config + " unavailable: " + e.getMessage());
+            return -1;
+        }
+        try {
+            ByteBuffer input = allocate(engine.getInputFormat().byteCount(engine.getInputShape()));
+            ByteBuffer output = allocate(engine.getOutputFormat().byteCount(engine.getOutputShape()));
+
+            // 1. Warm-up, also the early cut-off for hopeless candidates
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                long start = System.nanoTime();
+                engine.run(input, output);
+                if (i == WARMUP_RUNS - 1 && System.nanoTime() - start > cutoffNanos) {
+                    LOG.info("Calibration " + config + ": too slow, skipped");
+                    return -1;
+                }
+            }
+
+            // 2. Timed runs
+            long[] times = new long[TIMED_RUNS];
+            for (int i = 0; i < TIMED_RUNS; i++) {
+                long start = System.nanoTime();
+                engine.run(input, output);
+                times[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(times);
+            return times[TIMED_RUNS / 2];
+        } catch (RuntimeException e) {
+            LOG.log(Level.INFO, "Calibration " + config + " failed: " + e.getMessage());
+            return -1;
+        } finally {
+            engine.close();
+        }
+    }
+
+    // Zeroed float32 tensor of the given shape
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes)
+                .order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,54 @@
+package com.google.ar.core.examples.java.vision;
+
+/** One way to run the model: a backend plus the number of CPU threads it may use. */
+public final class EngineConfig {
+
+    public enum Backend {
+        /** Built-in CPU kernels with XNNPACK switched off. */
+        CPU,
+        /** CPU through the XNNPACK delegate. */
+        XNNPACK,
+        /** Android Neural Networks API. */
+        NNAPI,
+        /** GPU delegate, only where the device supports it. */
+        GPU
+    }
+
+    public final Backend backend;
+    public final int threads;
+
+    public EngineConfig(Backend backend, int threads) {
+        this.backend = backend;
+        this.threads = threads;
+    }
+
+    /** Parses the {@link #toString()} form, e.g. {@code "XNNPACK:4"}. Returns null if malformed. */
+    public static EngineConfig parse(String value) {
+        if (value == null) return null;
+        int colon = value.indexOf(':');
+        if (colon < 0) return null;
+        try {
+            return new EngineConfig(Backend.valueOf(value.substring(0, colon)),
+                    Integer.parseInt(value.substring(colon + 1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return backend + ":" + threads;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof EngineConfig)) return false;
+        EngineConfig other = (EngineConfig) o;
+        return backend == other.backend && threads == other.threads;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * backend.hashCode() + threads;
+    }
+}
@@ -0,0 +1,97 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends frames to a recording in the {@link FrameRecording} format.
+ *
+ * <p>Each frame is one gathering write of a fixed-size header and the raw planes, so nothing is
+ * re-encoded. Not thread-safe; write from a single thread.
+ */
+public class FrameRecorder implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocateDirect(FrameRecording.RECORD_HEADER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer[] gather = new ByteBuffer[5];
+    private int frameCount;
+
+    public FrameRecorder(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Writes to {@code channel}, which must be empty, and closes it on {@link #close()}. Lets
+     * Android below API 26, which has no java.nio.file, record through a FileOutputStream.
+     */
+    public FrameRecorder(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer fileHeader = ByteBuffer.allocate(FrameRecording.FILE_HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        fileHeader.putInt(FrameRecording.MAGIC).putInt(FrameRecording.VERSION).flip();
+        writeFully(fileHeader);
+    }
+
+    /**
+     * Appends one frame.
+     *
+     * @param pose camera pose as tx, ty, tz, qx, qy, qz, qw (ARCore's translation and rotation
+     *     quaternion); null records the identity pose
+     */
+    public void write(FrameSource frame, DepthSource depth, float[] pose) throws IOException {
+        // 1. Whole planes, from position 0, without touching the caller's buffer positions
+        ByteBuffer y = whole(frame.getYPlane());
+        ByteBuffer u = whole(frame.getUPlane());
+        ByteBuffer v = whole(frame.getVPlane());
+        ByteBuffer d = whole(depth.getDepthBuffer());
+        int dataSize = y.remaining() + u.remaining() + v.remaining() + d.remaining();
+
+        // 2. Fixed-size header; the field order is documented in FrameRecording
+        header.clear();
+        header.putInt(FrameRecording.RECORD_HEADER_SIZE + dataSize);
+        header.putLong(frame.getTimestampNs());
+        header.putInt(frame.getWidth()).putInt(frame.getHeight());
+        header.putInt(frame.getYRowStride()).putInt(frame.getUvRowStride()).putInt(frame.getUvPixelStride());
+        header.putInt(depth.getDepthWidth()).putInt(depth.getDepthHeight()).putInt(depth.getDepthRowStride());
+        for (int i = 0; i < FrameRecording.POSE_SIZE; i++) {
+            header.putFloat(pose != null ? pose[i] : (i == FrameRecording.POSE_SIZE - 1 ? 1f : 0f));
+        }
+        header.putInt(y.remaining()).putInt(u.remaining()).putInt(v.remaining()).putInt(d.remaining());
+        header.flip();
+
+        gather[0] = header;
+        gather[1] = y;
+        gather[2] = u;
+        gather[3] = v;
+        gather[4] = d;
+        long remaining = FrameRecording.RECORD_HEADER_SIZE + (long) dataSize;
+        while (remaining > 0) remaining -= channel.write(gather);
+        for (int i = 1; i < gather.length; i++) gather[i] = null;
+        frameCount++;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ByteBuffer whole(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate();
+        view.rewind();
+        return view;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+}
@@ -0,0 +1,138 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Memory-mapped reader for recorded camera, depth and pose frames.
+ *
+ * <p>The format is little-endian and append-only, so a recording that was cut off still reads up
+ * to its last complete frame:
+ * <pre>
+ *   file    := "VREC" magic (int), version (int), record*
+ *   record  := length (int, whole record), timestampNs (long),
+ *              width, height, yRowStride, uvRowStride, uvPixelStride (int),
+ *              depthWidth, depthHeight, depthRowStride (int),
+ *              pose tx, ty, tz, qx, qy, qz, qw (float),
+ *              ySize, uSize, vSize, depthSize (int),
+ *              Y, U, V and DEPTH16 plane bytes exactly as captured
+ * </pre>
+ *
+ * <p>Opening scans the record lengths once. Frames are then read straight out of the mapping:
+ * {@link #read} only points a {@link RecordedFrame} at the right bytes, nothing is copied.
+ */
+public class FrameRecording implements Closeable {
+    static final int MAGIC = 0x43455256; // "VREC"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_SIZE = 8;
+    static final int POSE_SIZE = 7;
+    static final int RECORD_HEADER_SIZE = 4 + 8 + 8 * 4 + POSE_SIZE * 4 + 4 * 4;
+
+    // A single mapping is limited to 2 GB, so long recordings are split at record boundaries
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private int[] recordSegment = new int[64];
+    private int[] recordOffset = new int[64];
+    private int frameCount;
+
+    private FrameRecording(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /** Opens and indexes the recording at {@code path}. */
+    public static FrameRecording open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        FrameRecording recording = new FrameRecording(channel);
+        try {
+            recording.index();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return recording;
+    }
+
+    private void index() throws IOException {
+        long size = channel.size();
+        ByteBuffer word = ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(word, 0);
+        if (word.getInt(0) != MAGIC) throw new IOException("Not a frame recording");
+        if (word.getInt(4) != VERSION) throw new IOException("Unsupported recording version " + word.getInt(4));
+
+        // 1. Walk the record lengths, starting a new segment when the current one would overflow
+        long segmentStart = FILE_HEADER_SIZE;
+        long position = FILE_HEADER_SIZE;
+        long[] segmentBounds = new long[8];
+        int segmentCount = 0;
+        ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        while (position + RECORD_HEADER_SIZE <= size) {
+            length.clear();
+            readFully(length, position);
+            int recordLength = length.getInt(0);
+            if (recordLength < RECORD_HEADER_SIZE || position + recordLength > size) break; // Truncated
+
+            if (position + recordLength - segmentStart > MAX_SEGMENT_SIZE) {
+                segmentBounds = add(segmentBounds, segmentCount++, segmentStart, position);
+                segmentStart = position;
+            }
+            if (frameCount == recordOffset.length) {
+                recordSegment = Arrays.copyOf(recordSegment, frameCount * 2);
+                recordOffset = Arrays.copyOf(recordOffset, frameCount * 2);
+            }
+            recordSegment[frameCount] = segmentCount;
+            recordOffset[frameCount] = (int) (position - segmentStart);
+            frameCount++;
+            position += recordLength;
+        }
+        if (position > segmentStart) segmentBounds = add(segmentBounds, segmentCount++, segmentStart, position);
+
+        // 2. Map every segment read-only
+        segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long start = segmentBounds[2 * i];
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, segmentBounds[2 * i + 1] - start);
+            segments[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private static long[] add(long[] bounds, int index, long start, long end) {
+        if (2 * index + 1 >= bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        bounds[2 * index] = start;
+        bounds[2 * index + 1] = end;
+        return bounds;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /** Points {@code out} at frame {@code index} and returns it. Valid until this is closed. */
+    public RecordedFrame read(int index, RecordedFrame out) {
+        if (index < 0 || index >= frameCount) {
+            throw new IndexOutOfBoundsException("Frame " + index + " of " + frameCount);
+        }
+        out.set(segments[recordSegment[index]], recordOffset[index]);
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new IOException("Unexpected end of recording");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A YUV_420_888 camera frame as plain NIO buffers and strides.
+ *
+ * <p>This is all the preprocessing code needs to know about a frame, so the same code runs on an
+ * ARCore image, a captured copy or a recording. Buffers are read from position 0 and must not be
+ * modified while a conversion is running.
+ */
+public interface FrameSource {
+    int getWidth();
+
+    int getHeight();
+
+    long getTimestampNs();
+
+    ByteBuffer getYPlane();
+
+    ByteBuffer getUPlane();
+
+    ByteBuffer getVPlane();
+
+    int getYRowStride();
+
+    /** Row stride shared by the U and V planes. */
+    int getUvRowStride();
+
+    /** 2 for interleaved chroma (NV21/NV12), 1 for planar (I420). */
+    int getUvPixelStride();
+}
@@ -0,0 +1,204 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.Arrays;
+
+/**
+ * Greedy non-maximum suppression accelerated by a uniform grid over the model input space.
+ *
+ * <p>Produces exactly the same boxes, in the same order, as the classic loop: sort by confidence
+ * (stable, highest first), keep the best box and drop every remaining box whose IoU with it is above
+ * the threshold. Instead of comparing every pair, each kept box is registered in the grid cells it
+ * covers, and a candidate is only compared against kept boxes that share one of its cells. Two boxes
+ * with a positive intersection always share at least one cell, so nothing is missed.
+ *
+ * <p>Given class ids, suppression can also be class-aware: a box is only suppressed by a kept box
+ * of its own class, so a confident Person no longer hides the Bicycle under it. That is the same
+ * result as one greedy NMS per class merged by confidence, but with one sort and one pass: the grid
+ * gets one layer per class, and a candidate only walks the cells of its own class's layer.
+ *
+ * <p>All working storage is reused between calls; it only grows when a frame has more candidates
+ * than any frame before it.
+ */
+public class GridNms {
+    private static final int DEFAULT_CELL_SIZE = 64;
+
+    private final float inverseCellSize;
+    private final int gridSize;
+
+    // Per-cell linked lists of kept boxes, one grid layer per class when class-aware.
+    // cellHeads[layer * cellCount + cell] points into entryBox/entryNext.
+    private final int cellCount;
+    private int[] cellHeads;
+    private int[] entryBox = new int[256];
+    private int[] entryNext = new int[256];
+    private int entryCount;
+
+    // Sort order and the merge sort scratch
+    private int[] order = new int[64];
+    private int[] sortScratch = new int[64];
+
+    // Last candidate each kept box was compared with, so boxes spanning cells are tested once
+    private int[] visitStamp = new int[64];
+    private int stamp;
+
+    private int[] kept = new int[64];
+    private int keptCount;
+
+    public GridNms(int inputSize) {
+        this(inputSize, DEFAULT_CELL_SIZE);
+    }
+
+    public GridNms(int inputSize, int cellSize) {
+        this.inverseCellSize = 1f / cellSize;
+        this.gridSize = Math.max(1, (inputSize + cellSize - 1) / cellSize);
+        this.cellCount = gridSize * gridSize;
+        this.cellHeads = new int[cellCount];
+    }
+
+    /**
+     * Runs class-agnostic NMS over the first {@code count} candidates.
+     *
+     * @param boxes corners packed as left, top, right, bottom
+     * @param scores confidence of each candidate
+     * @return number of kept candidates, whose indices are in {@link #getKept()}
+     */
+    public int run(float[] boxes, float[] scores, int count, float iouThreshold) {
+        return run(boxes, scores, null, count, iouThreshold);
+    }
+
+    /**
+     * Runs NMS over the first {@code count} candidates, class-aware if {@code classIds} is given.
+     *
+     * @param classIds class of each candidate, or null for class-agnostic NMS
+     * @return number of kept candidates, whose indices are in {@link #getKept()}
+     */
+    public int run(float[] boxes, float[] scores, int[] classIds, int count, float iouThreshold) {
+        ensureCapacity(count);
+        int layers = 1;
+        if (classIds != null) {
+            for (int i = 0; i < count; i++) layers = Math.max(layers, classIds[i] + 1);
+        }
+        if (cellHeads.length < layers * cellCount) cellHeads = new int[layers * cellCount];
+        Arrays.fill(cellHeads, 0, layers * cellCount, -1);
+        entryCount = 0;
+        keptCount = 0;
+
+        // 1. Stable sort by confidence, highest first (same order as List.sort)
+        for (int i = 0; i < count; i++) order[i] = i;
+        sortByScoreDescending(scores, count);
+
+        for (int n = 0; n < count; n++) {
+            int candidate = order[n];
+            int b = 4 * candidate;
+            int cellLeft = cell(boxes[b]);
+            int cellTop = cell(boxes[b + 1]);
+            int cellRight = cell(boxes[b + 2]);
+            int cellBottom = cell(boxes[b + 3]);
+            int layer = classIds != null ? classIds[candidate] * cellCount : 0;
+
+            // 2. Compare only against kept boxes sharing a cell with this candidate
+            nextStamp();
+            boolean suppressed = false;
+            for (int cy = cellTop; cy <= cellBottom && !suppressed; cy++) {
+                for (int cx = cellLeft; cx <= cellRight && !suppressed; cx++) {
+                    for (int e = cellHeads[layer + cy * gridSize + cx]; e != -1; e = entryNext[e]) {
+                        int other = entryBox[e];
+                        if (visitStamp[other] == stamp) continue;
+                        visitStamp[other] = stamp;
+                        if (iou(boxes, other, candidate) > iouThreshold) {
+                            suppressed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            if (suppressed) continue;
+
+            // 3. Keep it and register it in every cell it covers
+            kept[keptCount++] = candidate;
+            for (int cy = cellTop; cy <= cellBottom; cy++) {
+                for (int cx = cellLeft; cx <= cellRight; cx++) {
+                    addEntry(layer + cy * gridSize + cx, candidate);
+                }
+            }
+        }
+        return keptCount;
+    }
+
+    /** Indices of the kept candidates, highest confidence first. */
+    public int[] getKept() {
+        return kept;
+    }
+
+    public int getKeptCount() {
+        return keptCount;
+    }
+
+    /** IoU of two packed boxes, evaluated in the same order as the original RectF version. */
+    static float iou(float[] boxes, int a, int b) {
+        int i = 4 * a;
+        int j = 4 * b;
+        float intersectionArea =
+                Math.max(0, Math.min(boxes[i + 2], boxes[j + 2]) - Math.max(boxes[i], boxes[j])) *
+                Math.max(0, Math.min(boxes[i + 3], boxes[j + 3]) - Math.max(boxes[i + 1], boxes[j + 1]));
+        float unionArea = ((boxes[i + 2] - boxes[i]) * (boxes[i + 3] - boxes[i + 1])) +
+                ((boxes[j + 2] - boxes[j]) * (boxes[j + 3] - boxes[j + 1])) - intersectionArea;
+        return intersectionArea / unionArea;
+    }
+
+    private int cell(float coordinate) {
+        int c = (int) Math.floor(coordinate * inverseCellSize);
+        return Math.max(0, Math.min(gridSize - 1, c));
+    }
+
+    private void addEntry(int cell, int box) {
+        if (entryCount == entryBox.length) {
+            entryBox = Arrays.copyOf(entryBox, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        entryBox[entryCount] = box;
+        entryNext[entryCount] = cellHeads[cell];
+        cellHeads[cell] = entryCount++;
+    }
+
+    private void nextStamp() {
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(visitStamp, 0);
+            stamp = 0;
+        }
+        stamp++;
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= order.length) return;
+        int capacity = Math.max(count, order.length * 2);
+        order = new int[capacity];
+        sortScratch = new int[capacity];
+        kept = new int[capacity];
+        visitStamp = new int[capacity];
+        stamp = 0;
+    }
+
+    // Bottom-up merge sort on the index array; ties keep their decode order
+    private void sortByScoreDescending(float[] scores, int count) {
+        int[] src = order;
+        int[] dst = sortScratch;
+        for (int width = 1; width < count; width *= 2) {
+            for (int lo = 0; lo < count; lo += 2 * width) {
+                int mid = Math.min(lo + width, count);
+                int hi = Math.min(lo + 2 * width, count);
+                int l = lo, r = mid, k = lo;
+                while (l < mid && r < hi) {
+                    dst[k++] = scores[src[l]] >= scores[src[r]] ? src[l++] : src[r++];
+                }
+                while (l < mid) dst[k++] = src[l++];
+                while (r < hi) dst[k++] = src[r++];
+            }
+            int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        order = src;
+        sortScratch = dst;
+    }
+}
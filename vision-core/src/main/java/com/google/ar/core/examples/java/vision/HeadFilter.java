@@ -0,0 +1,63 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.Arrays;
+
+/**
+ * Which YOLO detection heads to decode, and at what confidence threshold.
+ *
+ * <p>The output tensor is the three heads back to back: stride 8 (80x80 cells at 640, small
+ * objects), stride 16 (40x40) and stride 32 (20x20, large objects). The stride-8 head alone is 76%
+ * of all anchors, so skipping it when only nearby, large obstacles matter cuts most of the decode
+ * work. Immutable, so one instance can be swapped in while other threads decode with the last.
+ */
+public final class HeadFilter {
+    public static final int HEAD_SMALL = 0;
+    public static final int HEAD_MEDIUM = 1;
+    public static final int HEAD_LARGE = 2;
+    public static final int HEAD_COUNT = 3;
+
+    /** Every head at the caller's threshold. */
+    public static final HeadFilter ALL = new HeadFilter(new boolean[] {true, true, true},
+            new float[] {Float.NaN, Float.NaN, Float.NaN});
+
+    /** Near-field obstacle mode: the small-object head is skipped. */
+    public static final HeadFilter NEAR_FIELD = ALL.withHead(HEAD_SMALL, false);
+
+    private final boolean[] enabled;
+    // NaN: use the caller's threshold
+    private final float[] thresholds;
+
+    private HeadFilter(boolean[] enabled, float[] thresholds) {
+        this.enabled = enabled;
+        this.thresholds = thresholds;
+    }
+
+    /** A copy with {@code head} decoded or skipped. */
+    public HeadFilter withHead(int head, boolean decode) {
+        boolean[] newEnabled = enabled.clone();
+        newEnabled[head] = decode;
+        return new HeadFilter(newEnabled, thresholds);
+    }
+
+    /** A copy with its own confidence threshold for {@code head}; NaN goes back to the default. */
+    public HeadFilter withThreshold(int head, float threshold) {
+        float[] newThresholds = thresholds.clone();
+        newThresholds[head] = threshold;
+        return new HeadFilter(enabled, newThresholds);
+    }
+
+    public boolean isEnabled(int head) {
+        return enabled[head];
+    }
+
+    /** Threshold for {@code head}, or {@code defaultThreshold} if it has none of its own. */
+    public float threshold(int head, float defaultThreshold) {
+        float threshold = thresholds[head];
+        return Float.isNaN(threshold) ? defaultThreshold : threshold;
+    }
+
+    @Override
+    public String toString() {
+        return "HeadFilter" + Arrays.toString(enabled) + Arrays.toString(thresholds);
+    }
+}
@@ -0,0 +1,54 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+/**
+ * A model backend: takes the packed input tensor and fills the output tensor.
+ *
+ * <p>Both tensors are direct, native-order buffers owned by the caller and reused every frame.
+ * Implementations describe their tensors through the shape getters, so the rest of the pipeline
+ * sizes its buffers from the model instead of from constants.
+ */
+public interface InferenceEngine extends Closeable {
+
+    /** Input tensor shape, e.g. {@code [1, 640, 640, 3]} for an NHWC image model. */
+    int[] getInputShape();
+
+    /** Output tensor shape, e.g. {@code [1, 25200, 24]} for YOLOv5. */
+    int[] getOutputShape();
+
+    /** Input element type; float32 unless the model is quantized. */
+    default TensorFormat getInputFormat() {
+        return TensorFormat.FLOAT32;
+    }
+
+    /** Output element type; float32 unless the model is quantized. */
+    default TensorFormat getOutputFormat() {
+        return TensorFormat.FLOAT32;
+    }
+
+    /** Whether {@link #resizeInput} is supported. */
+    default boolean canResizeInput() {
+        return false;
+    }
+
+    /**
+     * Changes the input shape, e.g. to run the same model at 320x320 instead of 640x640. The output
+     * shape follows from the model; read it again afterwards. May throw if the model's graph does
+     * not allow the new shape.
+     */
+    default void resizeInput(int[] shape) {
+        throw new UnsupportedOperationException("Input resizing not supported");
+    }
+
+    /**
+     * Runs the model. {@code input} is read from position 0; {@code output} is written from
+     * position 0 and must hold the whole output tensor.
+     */
+    void run(ByteBuffer input, ByteBuffer output);
+
+    /** Frees the backend's native resources. The engine must not be used afterwards. */
+    @Override
+    void close();
+}
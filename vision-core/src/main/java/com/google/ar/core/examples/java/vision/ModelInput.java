@@ -0,0 +1,85 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Model input plus the letterbox geometry it was built with. Reused from frame to frame.
+ *
+ * <p>For a float32 model the RGB channels are stored as 0-1 floats through {@link #floats}. For a
+ * quantized model they are stored as one byte each, mapped through {@link #channelTable}, and
+ * {@link #floats} is null.
+ */
+public class ModelInput {
+    public final ByteBuffer buffer;
+    public final FloatBuffer floats; // Float view of buffer; null for a quantized model
+    public final TensorFormat format;
+    // 0-255 channel value -> quantized byte; null for float32
+    public final byte[] channelTable;
+    public int xOffset;
+    public int yOffset;
+    public float scale;
+    // Size of the upright image before letterboxing (480x640 for the rotated camera frame)
+    public int imageWidth;
+    public int imageHeight;
+    public int targetSize;
+
+    private FloatBuffer[] stripeViews = new FloatBuffer[0];
+    private ByteBuffer[] byteStripeViews = new ByteBuffer[0];
+
+    /** Allocates the float32 input buffer once; every stage fills it in place. */
+    public ModelInput(int targetSize) {
+        this(targetSize, TensorFormat.FLOAT32);
+    }
+
+    /** Allocates the input buffer for a model whose input is in {@code format}. */
+    public ModelInput(int targetSize, TensorFormat format) {
+        this.targetSize = targetSize;
+        this.format = format;
+        this.buffer = ByteBuffer.allocateDirect(format.type.bytes * targetSize * targetSize * 3);
+        this.buffer.order(ByteOrder.nativeOrder());
+        this.floats = format.isQuantized() ? null : buffer.asFloatBuffer();
+        this.channelTable = format.isQuantized() ? format.channelTable() : null;
+    }
+
+    public boolean isQuantized() {
+        return floats == null;
+    }
+
+    /** Computes scale and black bar offsets for fitting an image into the square input. */
+    public void setLetterbox(int imageWidth, int imageHeight, int targetSize) {
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.targetSize = targetSize;
+        scale = Math.min((float) targetSize / imageWidth, (float) targetSize / imageHeight);
+        xOffset = (targetSize - (int) (imageWidth * scale)) / 2;
+        yOffset = (targetSize - (int) (imageHeight * scale)) / 2;
+    }
+
+    /**
+     * Makes sure {@link #stripeFloats} (or {@link #stripeBytes}, if quantized) has a view for each
+     * of {@code stripeCount} stripes.
+     */
+    public void prepareStripes(int stripeCount) {
+        if (isQuantized()) {
+            if (byteStripeViews.length >= stripeCount) return;
+            byteStripeViews = new ByteBuffer[stripeCount];
+            for (int i = 0; i < stripeCount; i++) byteStripeViews[i] = buffer.duplicate();
+            return;
+        }
+        if (stripeViews.length >= stripeCount) return;
+        stripeViews = new FloatBuffer[stripeCount];
+        for (int i = 0; i < stripeCount; i++) stripeViews[i] = floats.duplicate();
+    }
+
+    /** Independent view of {@link #floats}, so stripes can position and fill it concurrently. */
+    public FloatBuffer stripeFloats(int stripe) {
+        return stripeViews[stripe];
+    }
+
+    /** Independent view of {@link #buffer} for a quantized input; see {@link #stripeFloats}. */
+    public ByteBuffer stripeBytes(int stripe) {
+        return byteStripeViews[stripe];
+    }
+}
@@ -0,0 +1,121 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds the {@link Detector} on a background thread and warms it up before anyone sees it.
+ *
+ * <p>Creating the detector maps the model, builds the delegate and compiles the graph, and the
+ * first few inferences are much slower than the rest while kernels and caches settle. Doing all
+ * of that here keeps it off the UI thread and out of the frame loop: {@link Listener#onReady} only
+ * fires once the detector has run {@code warmupRuns} inferences on a blank input, so the pipeline
+ * built from it sees steady-state latency from the first frame.
+ */
+public class ModelLoader {
+    private static final Logger LOG = Logger.getLogger("ModelLoader");
+
+    /** Creates the detector; called once, on the loader thread. */
+    public interface DetectorFactory {
+        Detector create() throws Exception;
+    }
+
+    /** Called on the loader thread. */
+    public interface Listener {
+        void onReady(Detector detector);
+
+        void onFailed(Exception e);
+    }
+
+    private final DetectorFactory factory;
+    private final int warmupRuns;
+
+    // Guarded by "this"
+    private Detector detector;
+    private boolean closed;
+
+    private long startNanos;
+    private volatile long loadNanos;
+    private volatile long warmupNanos;
+    private volatile boolean firstDetectionReported;
+
+    public ModelLoader(DetectorFactory factory, int warmupRuns) {
+        this.factory = factory;
+        this.warmupRuns = warmupRuns;
+    }
+
+    /** Starts loading on a new background thread; {@code listener} hears back from that thread. */
+    public void start(Listener listener) {
+        startNanos = System.nanoTime();
+        Thread thread = new Thread(() -> load(listener), "model-loader");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+
+    private void load(Listener listener) {
+        Detector loaded;
+        try {
+            // 1. Create: map the model, build the delegate, compile the graph
+            long start = System.nanoTime();
+            loaded = factory.create();
+            loadNanos = System.nanoTime() - start;
+
+            // 2. Warm up on a blank input; the output is thrown away
+            start = System.nanoTime();
+            ModelInput input = loaded.newInput();
+            YoloOutputDecoder output = loaded.newOutput();
+            for (int i = 0; i < warmupRuns; i++) {
+                loaded.runInference(input, output);
+            }
+            warmupNanos = System.nanoTime() - start;
+        } catch (Exception e) {
+            LOG.log(Level.SEVERE, "Model load failed: " + e.getMessage(), e);
+            listener.onFailed(e);
+            return;
+        }
+
+        // 3. Publish, unless the owner went away while we were loading
+        synchronized (this) {
+            if (closed) {
+                loaded.close();
+                return;
+            }
+            detector = loaded;
+        }
+        LOG.info("Model ready: load " + loadNanos / 1_000_000 + " ms, "
+                + warmupRuns + " warm-up runs " + warmupNanos / 1_000_000 + " ms");
+        listener.onReady(loaded);
+    }
+
+    /** The warmed-up detector, or null while it is still loading (or if loading failed). */
+    public synchronized Detector getDetector() {
+        return detector;
+    }
+
+    public synchronized boolean isReady() {
+        return detector != null;
+    }
+
+    /**
+     * Call when the first results come out of the pipeline. Logs the time from {@link #start} to
+     * then, once; later calls do nothing.
+     */
+    public void reportFirstDetection() {
+        if (firstDetectionReported) return;
+        firstDetectionReported = true;
+        long elapsed = System.nanoTime() - startNanos;
+        LOG.info("Time to first detection " + elapsed / 1_000_000 + " ms (load "
+                + loadNanos / 1_000_000 + " ms, warm-up " + warmupNanos / 1_000_000 + " ms)");
+    }
+
+    /** Closes the detector, now or as soon as a load still in progress finishes. */
+    public void close() {
+        Detector toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = detector;
+            detector = null;
+        }
+        if (toClose != null) toClose.close();
+    }
+}
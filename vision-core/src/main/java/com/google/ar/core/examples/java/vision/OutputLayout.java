@@ -0,0 +1,59 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.Arrays;
+
+/**
+ * How a YOLO export lays out its detection tensor. Each layout has its own decode kernel in
+ * {@link YoloOutputDecoder}.
+ */
+public enum OutputLayout {
+    /** YOLOv5: {@code [1, anchors, 5 + classes]}, one row per anchor, with objectness. */
+    YOLO_V5(5),
+    /** YOLOv8: {@code [1, 4 + classes, anchors]}, one plane per attribute, no objectness. */
+    YOLO_V8(4);
+
+    /** Attributes before the class scores: the box, plus objectness for v5. */
+    public final int boxAttributes;
+
+    OutputLayout(int boxAttributes) {
+        this.boxAttributes = boxAttributes;
+    }
+
+    /**
+     * Picks the layout of a {@code [1, a, b]} output. With a known {@code classCount} the side
+     * holding the class scores decides; otherwise (0) the attribute side is taken to be the
+     * shorter one, since exports have thousands of anchors and tens of classes.
+     *
+     * @throws IllegalArgumentException if the shape is not a YOLO detection output
+     */
+    public static OutputLayout detect(int[] outputShape, int classCount) {
+        if (outputShape.length != 3 || outputShape[0] != 1) {
+            throw new IllegalArgumentException("Unsupported output shape " + Arrays.toString(outputShape));
+        }
+        int a = outputShape[1];
+        int b = outputShape[2];
+        if (classCount > 0) {
+            if (b == YOLO_V5.boxAttributes + classCount) return YOLO_V5;
+            if (a == YOLO_V8.boxAttributes + classCount) return YOLO_V8;
+        }
+        if (b < a && b > YOLO_V5.boxAttributes) return YOLO_V5;
+        if (a < b && a > YOLO_V8.boxAttributes) return YOLO_V8;
+        throw new IllegalArgumentException("Unsupported output shape " + Arrays.toString(outputShape));
+    }
+
+    /** Anchors (candidate boxes) in an output of this layout. */
+    public int anchorCount(int[] outputShape) {
+        return this == YOLO_V5 ? outputShape[1] : outputShape[2];
+    }
+
+    /** Shape of an output of this layout with {@code anchors} anchors and {@code classes} classes. */
+    public int[] shape(int anchors, int classes) {
+        int attributes = boxAttributes + classes;
+        return this == YOLO_V5 ? new int[] {1, anchors, attributes} : new int[] {1, attributes, anchors};
+    }
+
+    /** Classes in an output of this layout. */
+    public int classCount(int[] outputShape) {
+        return (this == YOLO_V5 ? outputShape[2] : outputShape[1]) - boxAttributes;
+    }
+}
@@ -0,0 +1,16 @@
+package com.google.ar.core.examples.java.vision;
+
+/**
+ * A camera frame plus its depth image and pose, as {@link VisionPipeline} takes them.
+ *
+ * <p>The pipeline owns a frame from submit until it calls {@link #release()}, which hands it back
+ * to wherever it came from: a {@link CapturedFramePool} for live capture, a
+ * {@link ReplayPlayer} for a recording.
+ */
+public interface PipelineFrame extends FrameSource, DepthSource {
+    /** Camera pose as tx, ty, tz, qx, qy, qz, qw. */
+    float[] getPose();
+
+    /** Gives the frame back to its owner. It must not be used afterwards. */
+    void release();
+}
@@ -0,0 +1,147 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Consumer;
+
+/**
+ * One frame of a {@link FrameRecording}, served straight from the file mapping.
+ *
+ * <p>Reusable: {@link FrameRecording#read} repoints it at another frame. The plane buffers are
+ * read-only views of the mapping and stay valid until the recording is closed. {@link #release()}
+ * hands it to the callback it was created with, so a player can recycle frames the pipeline is done with.
+ */
+public class RecordedFrame implements PipelineFrame {
+    private final Consumer<RecordedFrame> onRelease;
+    private long timestampNs;
+    private int width;
+    private int height;
+    private int yRowStride;
+    private int uvRowStride;
+    private int uvPixelStride;
+    private int depthWidth;
+    private int depthHeight;
+    private int depthRowStride;
+    private final float[] pose = new float[FrameRecording.POSE_SIZE];
+    private ByteBuffer yPlane;
+    private ByteBuffer uPlane;
+    private ByteBuffer vPlane;
+    private ByteBuffer depth;
+
+    public RecordedFrame() {
+        this(null);
+    }
+
+    /** @param onRelease given this frame by every {@link #release()}, or null to make it a no-op */
+    public RecordedFrame(Consumer<RecordedFrame> onRelease) {
+        this.onRelease = onRelease;
+    }
+
+    void set(ByteBuffer segment, int offset) {
+        int p = offset + 4;
+        timestampNs = segment.getLong(p);
+        p += 8;
+        width = segment.getInt(p);
+        height = segment.getInt(p + 4);
+        yRowStride = segment.getInt(p + 8);
+        uvRowStride = segment.getInt(p + 12);
+        uvPixelStride = segment.getInt(p + 16);
+        depthWidth = segment.getInt(p + 20);
+        depthHeight = segment.getInt(p + 24);
+        depthRowStride = segment.getInt(p + 28);
+        p += 32;
+        for (int i = 0; i < pose.length; i++, p += 4) pose[i] = segment.getFloat(p);
+        int ySize = segment.getInt(p);
+        int uSize = segment.getInt(p + 4);
+        int vSize = segment.getInt(p + 8);
+        int depthSize = segment.getInt(p + 12);
+        p += 16;
+
+        yPlane = view(segment, p, ySize);
+        uPlane = view(segment, p += ySize, uSize);
+        vPlane = view(segment, p += uSize, vSize);
+        depth = view(segment, p + vSize, depthSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer view(ByteBuffer segment, int offset, int length) {
+        ByteBuffer view = segment.duplicate();
+        view.limit(offset + length).position(offset);
+        return view.slice();
+    }
+
+    /** Camera pose as tx, ty, tz, qx, qy, qz, qw. Overwritten by the next read. */
+    @Override
+    public float[] getPose() {
+        return pose;
+    }
+
+    @Override
+    public void release() {
+        if (onRelease != null) onRelease.accept(this);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long getTimestampNs() {
+        return timestampNs;
+    }
+
+    @Override
+    public ByteBuffer getYPlane() {
+        return yPlane;
+    }
+
+    @Override
+    public ByteBuffer getUPlane() {
+        return uPlane;
+    }
+
+    @Override
+    public ByteBuffer getVPlane() {
+        return vPlane;
+    }
+
+    @Override
+    public int getYRowStride() {
+        return yRowStride;
+    }
+
+    @Override
+    public int getUvRowStride() {
+        return uvRowStride;
+    }
+
+    @Override
+    public int getUvPixelStride() {
+        return uvPixelStride;
+    }
+
+    @Override
+    public int getDepthWidth() {
+        return depthWidth;
+    }
+
+    @Override
+    public int getDepthHeight() {
+        return depthHeight;
+    }
+
+    @Override
+    public int getDepthRowStride() {
+        return depthRowStride;
+    }
+
+    @Override
+    public ByteBuffer getDepthBuffer() {
+        return depth;
+    }
+}
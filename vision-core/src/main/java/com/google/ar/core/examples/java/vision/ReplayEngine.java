@@ -0,0 +1,114 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Deterministic stand-in for a real model: returns recorded output tensors in order, cycling
+ * through them, and ignores the input.
+ *
+ * <p>Lets the conversion, decode, NMS and depth stages be load-tested, or post-processing be
+ * checked against known outputs, on a machine without the model runtime or an accelerator. An
+ * optional fixed latency stands in for the time the real model would take.
+ */
+public class ReplayEngine implements InferenceEngine {
+    private final int[] inputShape;
+    private final int[] outputShape;
+    private final TensorFormat inputFormat;
+    private final TensorFormat outputFormat;
+    private final ByteBuffer tensors;
+    private final int tensorBytes;
+    private final int tensorCount;
+    private long latencyNanos;
+    private int next;
+
+    /**
+     * @param tensors one or more float32 output tensors back to back, in the order the model wrote
+     *     them (native byte order)
+     */
+    public ReplayEngine(int[] inputShape, int[] outputShape, ByteBuffer tensors) {
+        this(inputShape, TensorFormat.FLOAT32, outputShape, TensorFormat.FLOAT32, tensors);
+    }
+
+    /** Like a quantized model: {@code tensors} holds raw output tensors in {@code outputFormat}. */
+    public ReplayEngine(int[] inputShape, TensorFormat inputFormat, int[] outputShape,
+                        TensorFormat outputFormat, ByteBuffer tensors) {
+        this.inputShape = inputShape.clone();
+        this.outputShape = outputShape.clone();
+        this.inputFormat = inputFormat;
+        this.outputFormat = outputFormat;
+        this.tensorBytes = outputFormat.byteCount(outputShape);
+        this.tensors = tensors.duplicate();
+        this.tensors.rewind();
+        this.tensorCount = this.tensors.remaining() / tensorBytes;
+        if (tensorCount == 0) {
+            throw new IllegalArgumentException("Need at least one " + tensorBytes + " byte tensor");
+        }
+    }
+
+    /** Memory-maps a file of raw little-endian float32 output tensors written back to back. */
+    public static ReplayEngine fromFile(Path path, int[] inputShape, int[] outputShape)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ReplayEngine(inputShape, outputShape, mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /** Makes every {@link #run} take at least {@code latencyNanos}, like the real model would. */
+    public void setLatencyNanos(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+    }
+
+    public int getTensorCount() {
+        return tensorCount;
+    }
+
+    @Override
+    public int[] getInputShape() {
+        return inputShape.clone();
+    }
+
+    @Override
+    public int[] getOutputShape() {
+        return outputShape.clone();
+    }
+
+    @Override
+    public TensorFormat getInputFormat() {
+        return inputFormat;
+    }
+
+    @Override
+    public TensorFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer output) {
+        long due = System.nanoTime() + latencyNanos;
+
+        // 1. Copy the next recorded tensor; a slice keeps the shared buffer's position untouched
+        ByteBuffer tensor = tensors.duplicate();
+        tensor.position(next * tensorBytes).limit((next + 1) * tensorBytes);
+        output.rewind();
+        output.put(tensor);
+        output.rewind();
+        next = (next + 1) % tensorCount;
+
+        // 2. Simulated model time
+        for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    @Override
+    public void close() {
+        // Nothing native to free
+    }
+}
@@ -0,0 +1,96 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feeds the frames of a {@link FrameRecording} to a consumer, either as fast as it takes them or
+ * paced by the recorded timestamps, so a desktop run sees the same frame timing as the phone did.
+ */
+public class ReplayPlayer {
+
+    /** Receives each frame on the playing thread; the frame is only valid during the call. */
+    public interface FrameConsumer {
+        void onFrame(int index, RecordedFrame frame) throws Exception;
+    }
+
+    private final FrameRecording recording;
+    private final boolean realTime;
+
+    /**
+     * @param realTime true to wait between frames as long as the recording did, false to replay
+     *     at full speed
+     */
+    public ReplayPlayer(FrameRecording recording, boolean realTime) {
+        this.recording = recording;
+        this.realTime = realTime;
+    }
+
+    /** Plays every frame once, in order. Returns the number of frames played. */
+    public int play(FrameConsumer consumer) throws Exception {
+        RecordedFrame frame = new RecordedFrame();
+        long firstTimestamp = 0L;
+        long startNanos = System.nanoTime();
+        int count = recording.getFrameCount();
+        for (int i = 0; i < count; i++) {
+            recording.read(i, frame);
+            if (realTime) {
+                if (i == 0) firstTimestamp = frame.getTimestampNs();
+                waitUntil(startNanos + (frame.getTimestampNs() - firstTimestamp));
+            }
+            consumer.onFrame(i, frame);
+        }
+        return count;
+    }
+
+    /**
+     * Plays every frame once, in order, through {@code pipeline}, and returns once the pipeline has
+     * released all of them. In real time frames are submitted like a camera's, so a slow pipeline
+     * drops some; at full speed each submit waits for the mailbox, so every frame is processed.
+     *
+     * <p>Frames are served from a ring of {@link RecordedFrame}s, enough for every frame the
+     * pipeline can hold plus the one being read, recycled as the pipeline releases them.
+     *
+     * @return the number of frames handed to the pipeline, fewer than the recording's if it was
+     *     shut down during a full-speed replay
+     */
+    public int play(VisionPipeline pipeline) throws InterruptedException {
+        int ringSize = VisionPipeline.MAX_FRAMES_IN_FLIGHT + 1;
+        BlockingQueue<RecordedFrame> free = new ArrayBlockingQueue<>(ringSize);
+        for (int i = 0; i < ringSize; i++) free.add(new RecordedFrame(free::add));
+
+        long firstTimestamp = 0L;
+        long startNanos = System.nanoTime();
+        int count = recording.getFrameCount();
+        int submitted = 0;
+        for (int i = 0; i < count; i++) {
+            RecordedFrame frame = recording.read(i, free.take());
+            if (i == 0) firstTimestamp = frame.getTimestampNs();
+            try {
+                if (realTime) {
+                    waitUntil(startNanos + (frame.getTimestampNs() - firstTimestamp));
+                    pipeline.submit(frame);
+                } else if (!pipeline.submitAndWait(frame)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                frame.release();
+                throw e;
+            }
+            submitted++;
+        }
+
+        // The recording must stay open until the pipeline is done reading from its mapping
+        for (int i = 0; i < ringSize; i++) free.take();
+        return submitted;
+    }
+
+    // Sleeps until System.nanoTime() reaches due
+    private static void waitUntil(long due) throws InterruptedException {
+        for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Picks the model input size from a per-frame latency budget.
+ *
+ * <p>Most objects that matter for navigation (doors, stairs, cars) are large, so they survive a
+ * smaller input well, and inference cost drops roughly with the input area. The controller keeps
+ * a smoothed per-frame work time. It steps down one size when that exceeds the budget, and steps
+ * back up when the time predicted for the next size up (scaled by the area ratio) still leaves
+ * headroom. After every switch it waits a few frames so the new size is measured on its own.
+ *
+ * <p>{@link #onFrame} is called from one thread; {@link #getInputSize} may be read from any.
+ */
+public class ResolutionController {
+    private static final Logger LOG = Logger.getLogger("ResolutionController");
+
+    /** Sizes worth trying for a 640 model: all multiples of the 32 pixel stride. */
+    public static final int[] DEFAULT_SIZES = {320, 416, 512, 640};
+
+    private static final float SMOOTHING = 0.2f;
+    // Step up only if the next size is predicted to need less than this share of the budget
+    private static final float HEADROOM = 0.8f;
+    // After a switch, the first frames pay for the engine resize and are ignored; the next ones
+    // are measured before deciding again
+    private static final int SKIP_FRAMES = 2;
+    private static final int SETTLE_FRAMES = 10;
+
+    private final int[] sizes;
+    private final long budgetNanos;
+
+    private volatile int index;
+    private float averageNanos = -1f;
+    private int framesAtSize;
+
+    /**
+     * @param sizes input sizes the model runs at
+     * @param initialSize where to start; the largest size not above it is used
+     * @param budgetNanos work time one frame may take
+     */
+    public ResolutionController(int[] sizes, int initialSize, long budgetNanos) {
+        if (sizes.length == 0) throw new IllegalArgumentException("No input sizes");
+        this.sizes = sizes.clone();
+        Arrays.sort(this.sizes);
+        this.budgetNanos = budgetNanos;
+        int start = 0;
+        while (start + 1 < this.sizes.length && this.sizes[start + 1] <= initialSize) start++;
+        this.index = start;
+    }
+
+    /** Input size to convert the next frame at. */
+    public int getInputSize() {
+        return sizes[index];
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Reports that a frame converted at {@code inputSize} took {@code frameNanos} of work, and
+     * adjusts the size if needed.
+     *
+     * @return the input size for the next frames
+     */
+    public int onFrame(int inputSize, long frameNanos) {
+        int current = index;
+        // Frames converted before the last switch say nothing about the new size
+        if (inputSize != sizes[current]) return sizes[current];
+
+        if (++framesAtSize <= SKIP_FRAMES) return sizes[current];
+        averageNanos = averageNanos < 0f ? frameNanos : averageNanos + SMOOTHING * (frameNanos - averageNanos);
+        if (framesAtSize < SKIP_FRAMES + SETTLE_FRAMES) return sizes[current];
+
+        if (averageNanos > budgetNanos && current > 0) {
+            switchTo(current - 1);
+        } else if (current + 1 < sizes.length) {
+            float areaRatio = (float) sizes[current + 1] * sizes[current + 1] / ((float) sizes[current] * sizes[current]);
+            if (averageNanos * areaRatio < HEADROOM * budgetNanos) switchTo(current + 1);
+        }
+        return sizes[index];
+    }
+
+    private void switchTo(int newIndex) {
+        LOG.info("Input size " + sizes[index] + " -> " + sizes[newIndex] + " (frame "
+                + Math.round(averageNanos / 1_000_000f) + " ms, budget " + budgetNanos / 1_000_000 + " ms)");
+        index = newIndex;
+        averageNanos = -1f;
+        framesAtSize = 0;
+    }
+}
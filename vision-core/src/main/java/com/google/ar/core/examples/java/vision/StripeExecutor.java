@@ -0,0 +1,129 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Splits a row range into horizontal stripes and runs them on a persistent worker pool.
+ *
+ * <p>Each component that wants parallel rows owns one StripeExecutor (its stripe objects are
+ * reused every call), while the worker threads themselves are shared process-wide. The calling
+ * thread runs the first stripe itself and then waits for the rest, so a stripe count of 1 is
+ * exactly the single-threaded path. Stripes must only write rows inside their own range; then
+ * the output does not depend on the stripe count.
+ */
+public class StripeExecutor {
+
+    /** Work for rows {@code [rowStart, rowEnd)}; {@code stripe} indexes per-stripe scratch. */
+    public interface StripeTask {
+        void run(int stripe, int rowStart, int rowEnd);
+    }
+
+    private static ExecutorService sharedPool;
+
+    private final ExecutorService pool;
+    private final Stripe[] stripes;
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Thread waiter;
+    private volatile Throwable failure;
+
+    public StripeExecutor(int stripeCount) {
+        this(sharedPool(), stripeCount);
+    }
+
+    public StripeExecutor(ExecutorService pool, int stripeCount) {
+        this.pool = pool;
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new Stripe(i);
+    }
+
+    /** Default stripe count: one per core. */
+    public static int defaultStripeCount() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Process-wide pool of daemon workers, created on first use. */
+    public static synchronized ExecutorService sharedPool() {
+        if (sharedPool == null) {
+            int workers = Math.max(1, defaultStripeCount() - 1);
+            AtomicInteger threadCount = new AtomicInteger();
+            sharedPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                    // Bounded array queue: submitting a stripe does not allocate a queue node
+                    new ArrayBlockingQueue<>(64),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "vision-stripe-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    // If the queue is ever full, the caller just does the work itself
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        return sharedPool;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /** Runs {@code task} over {@code [0, rows)} and returns once every stripe is done. */
+    public void run(int rows, StripeTask task) {
+        int count = Math.min(stripes.length, rows);
+        if (count <= 1) {
+            task.run(0, 0, rows);
+            return;
+        }
+
+        // 1. Hand stripes 1..n-1 to the pool
+        failure = null;
+        waiter = Thread.currentThread();
+        pending.set(count - 1);
+        for (int i = 1; i < count; i++) {
+            stripes[i].set(task, rows * i / count, rows * (i + 1) / count);
+            pool.execute(stripes[i]);
+        }
+
+        // 2. Run stripe 0 here, then wait for the others
+        try {
+            task.run(0, 0, rows / count);
+        } finally {
+            while (pending.get() > 0) LockSupport.park(this);
+            waiter = null;
+        }
+        for (int i = 1; i < count; i++) stripes[i].task = null;
+
+        Throwable error = failure;
+        if (error != null) throw new RuntimeException("Stripe failed", error);
+    }
+
+    private final class Stripe implements Runnable {
+        private final int index;
+        private StripeTask task;
+        private int rowStart;
+        private int rowEnd;
+
+        Stripe(int index) {
+            this.index = index;
+        }
+
+        void set(StripeTask task, int rowStart, int rowEnd) {
+            this.task = task;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run(index, rowStart, rowEnd);
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                if (pending.decrementAndGet() == 0) LockSupport.unpark(waiter);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.google.ar.core.examples.java.vision;
+
+/**
+ * Element type of a model tensor, plus the affine quantization of the integer types:
+ * {@code real = scale * (quantized - zeroPoint)}.
+ */
+public final class TensorFormat {
+    public enum Type {
+        FLOAT32(4),
+        UINT8(1),
+        INT8(1);
+
+        public final int bytes;
+
+        Type(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    public static final TensorFormat FLOAT32 = new TensorFormat(Type.FLOAT32, 1f, 0);
+
+    public final Type type;
+    public final float scale;
+    public final int zeroPoint;
+
+    private TensorFormat(Type type, float scale, int zeroPoint) {
+        this.type = type;
+        this.scale = scale;
+        this.zeroPoint = zeroPoint;
+    }
+
+    /** A uint8 or int8 tensor with per-tensor quantization. */
+    public static TensorFormat quantized(Type type, float scale, int zeroPoint) {
+        if (type == Type.FLOAT32 || !(scale > 0f)) {
+            throw new IllegalArgumentException("Not a quantized format: " + type + " scale " + scale);
+        }
+        return new TensorFormat(type, scale, zeroPoint);
+    }
+
+    public boolean isQuantized() {
+        return type != Type.FLOAT32;
+    }
+
+    /** Bytes a tensor of {@code shape} takes in this format. */
+    public int byteCount(int[] shape) {
+        int count = type.bytes;
+        for (int dimension : shape) count *= dimension;
+        return count;
+    }
+
+    public float dequantize(int quantized) {
+        return scale * (quantized - zeroPoint);
+    }
+
+    /**
+     * Smallest quantized value whose real value is at least {@code real}, so a threshold can be
+     * tested on the raw values without dequantizing them.
+     */
+    public int quantizedCeil(float real) {
+        int q = (int) Math.ceil(real / scale + zeroPoint);
+        while (q > Integer.MIN_VALUE && dequantize(q - 1) >= real) q--;
+        while (dequantize(q) < real) q++;
+        return q;
+    }
+
+    /**
+     * Quantized byte for each 0-255 channel value, normalized to 0-1 first like the float input.
+     * Packing a pixel is then a table lookup. A uint8 model with scale 1/255 gets the identity.
+     */
+    public byte[] channelTable() {
+        byte[] table = new byte[256];
+        int min = type == Type.UINT8 ? 0 : -128;
+        int max = type == Type.UINT8 ? 255 : 127;
+        for (int i = 0; i < 256; i++) {
+            int q = Math.round(i / 255f / scale) + zeroPoint;
+            table[i] = (byte) Math.max(min, Math.min(max, q));
+        }
+        return table;
+    }
+
+    @Override
+    public String toString() {
+        return isQuantized() ? type + "(scale " + scale + ", zero point " + zeroPoint + ")" : type.name();
+    }
+}
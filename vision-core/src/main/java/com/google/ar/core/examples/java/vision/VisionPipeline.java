@@ -0,0 +1,363 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Three-stage overlapped vision pipeline: convert, infer, post-process.
+ *
+ * <p>Each stage runs on its own long-lived thread, so while frame N is in the interpreter, frame
+ * N+1 is being converted and frame N-1 goes through NMS and the depth lookup. Throughput is then
+ * capped by the slowest stage instead of by the sum of all of them.
+ *
+ * <p>Frames enter through a single-slot mailbox: {@link #submit} never blocks, and a frame still
+ * waiting when a newer one arrives is dropped (latest frame wins). A replay that wants every frame
+ * processed uses {@link #submitAndWait} instead, which waits for the mailbox to empty. Frames are
+ * any {@link PipelineFrame}, pooled camera copies or recorded frames, and each is released once
+ * the pipeline is done with it. Every frame in flight lives in
+ * one of three preallocated jobs, each with its own model input and output buffers, and the
+ * stages hand jobs to each other over bounded queues.
+ *
+ * <p>With a {@link ResolutionController} set, each frame is converted at the size the controller
+ * currently asks for, and its total work time is fed back to it. Every job keeps buffers for each
+ * size it has used, and the inference stage resizes the engine when the size changes, so frames
+ * already in flight finish at the size they were converted at.
+ *
+ * <p>Logs through java.util.logging, which Android forwards to logcat, so the same pipeline runs
+ * on a desktop JVM against a {@link ReplayEngine}.
+ */
+public class VisionPipeline {
+    private static final Logger LOG = Logger.getLogger("VisionPipeline");
+    private static final Logger PERF_LOG = Logger.getLogger("YOLO_PERF");
+
+    public static final int STAGE_CONVERT = 0;
+    public static final int STAGE_INFER = 1;
+    public static final int STAGE_POST = 2;
+    private static final String[] STAGE_NAMES = {"convert", "infer", "post"};
+
+    // One job per stage: N+1 converting, N inferring, N-1 post-processing
+    private static final int JOB_COUNT = 3;
+    private static final int STATS_LOG_INTERVAL = 30;
+
+    /** Most frames the pipeline holds at once: one per job plus the mailbox. */
+    public static final int MAX_FRAMES_IN_FLIGHT = JOB_COUNT + 1;
+
+    /** Receives each frame's results on the post-process thread and takes ownership of them. */
+    public interface Listener {
+        void onResults(DetectionBatch results);
+    }
+
+    private static final class FrameJob {
+        final Detector detector;
+        ModelInput input;
+        YoloOutputDecoder output;
+        PipelineFrame frame;
+        // Convert + infer + post time of the current frame
+        long workNanos;
+
+        // Buffers for every input size used so far, so switching back and forth does not allocate
+        private final Map<Integer, ModelInput> inputs = new HashMap<>();
+        private final Map<Integer, YoloOutputDecoder> outputs = new HashMap<>();
+
+        FrameJob(Detector detector) {
+            this.detector = detector;
+            useSize(detector.getInputSize());
+        }
+
+        void useSize(int size) {
+            if (input != null && input.targetSize == size) return;
+            input = inputs.computeIfAbsent(size, detector::newInput);
+            output = outputs.computeIfAbsent(size, detector::newOutput);
+        }
+
+        void releaseFrame() {
+            if (frame != null) frame.release();
+            frame = null;
+        }
+    }
+
+    private final YuvConverter converter = new YuvConverter();
+    private final Detector detector;
+    private final Listener listener;
+
+    private final FrameJob[] jobs = new FrameJob[JOB_COUNT];
+    private final BlockingQueue<FrameJob> freeJobs = new ArrayBlockingQueue<>(JOB_COUNT);
+    private final BlockingQueue<FrameJob> toInfer = new ArrayBlockingQueue<>(1);
+    private final BlockingQueue<FrameJob> toPost = new ArrayBlockingQueue<>(1);
+    private final Thread[] threads = new Thread[3];
+
+    // The mailbox; guarded by "this"
+    private PipelineFrame pending;
+    private volatile boolean running = true;
+
+    // Optional; written by the post-process thread only
+    private volatile FrameRecorder recorder;
+    private volatile ResolutionController resolution;
+
+    // Stats. Each counter has a single writer thread.
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray busyNanos = new AtomicLongArray(3);
+    private volatile long droppedFrames;
+    private volatile long processedFrames;
+
+    public VisionPipeline(Detector detector, Listener listener) {
+        this.detector = detector;
+        this.listener = listener;
+
+        for (int i = 0; i < JOB_COUNT; i++) {
+            jobs[i] = new FrameJob(detector);
+            freeJobs.add(jobs[i]);
+        }
+        threads[STAGE_CONVERT] = new Thread(this::convertLoop, "vision-convert");
+        threads[STAGE_INFER] = new Thread(this::inferLoop, "vision-infer");
+        threads[STAGE_POST] = new Thread(this::postLoop, "vision-post");
+        for (Thread thread : threads) thread.start();
+    }
+
+    /**
+     * Hands a frame to the pipeline and takes ownership of it. Never blocks; an older frame still
+     * waiting in the mailbox is dropped and released back to its owner.
+     */
+    public void submit(PipelineFrame frame) {
+        PipelineFrame dropped;
+        synchronized (this) {
+            if (!running) {
+                dropped = frame;
+            } else {
+                dropped = pending;
+                pending = frame;
+                notifyAll();
+            }
+        }
+        if (dropped != null) {
+            droppedFrames++;
+            dropped.release();
+        }
+    }
+
+    /**
+     * Hands a frame to the pipeline and takes ownership of it, first waiting for the previous frame
+     * to leave the mailbox, so no frame is dropped. Paces a caller that produces frames faster than
+     * the pipeline takes them, such as a replay at full speed.
+     *
+     * @return false if the pipeline was shut down instead, in which case the frame was released
+     * @throws InterruptedException if interrupted while waiting; the caller still owns the frame
+     */
+    public boolean submitAndWait(PipelineFrame frame) throws InterruptedException {
+        synchronized (this) {
+            while (running && pending != null) wait();
+            if (running) {
+                pending = frame;
+                notifyAll();
+                return true;
+            }
+        }
+        frame.release();
+        return false;
+    }
+
+    /**
+     * Records every frame that makes it through the pipeline, or stops recording if null. Frames
+     * dropped by the mailbox are not recorded, so a replay sees what the detector saw. The caller
+     * closes the recorder, after {@link #shutdown()}.
+     */
+    public void setRecorder(FrameRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Lets {@code controller} pick the input size of every following frame, or runs at the
+     * model's native size again if null.
+     */
+    public void setResolutionController(ResolutionController controller) {
+        this.resolution = controller;
+    }
+
+    /**
+     * Stops all stages and releases every frame the pipeline still holds. Blocks until every stage
+     * thread has exited, which can take as long as the inference call in progress; after that the
+     * detector is no longer in use and may be closed. Must not be called from the listener.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        for (Thread thread : threads) thread.interrupt();
+
+        // Frames are only released once no stage can touch a job any more
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        synchronized (this) {
+            if (pending != null) pending.release();
+            pending = null;
+        }
+        for (FrameJob job : jobs) job.releaseFrame();
+    }
+
+    /** Fraction of wall time (0-1) the given stage spent working since the pipeline started. */
+    public float getOccupancy(int stage) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed > 0 ? (float) busyNanos.get(stage) / elapsed : 0f;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public long getProcessedFrames() {
+        return processedFrames;
+    }
+
+    /** Per-stage occupancy; the stage closest to 100% is the bottleneck. */
+    public String formatStats() {
+        StringBuilder sb = new StringBuilder();
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            sb.append(STAGE_NAMES[stage]).append(' ')
+                    .append(Math.round(getOccupancy(stage) * 100)).append("% | ");
+        }
+        return sb.append("processed ").append(processedFrames)
+                .append(" | dropped ").append(droppedFrames).toString();
+    }
+
+    // Stage 1: wait for a free job and the latest frame, convert it
+    private void convertLoop() {
+        try {
+            while (running) {
+                FrameJob job = freeJobs.take();
+                if (!takeFromMailbox(job)) {
+                    freeJobs.put(job);
+                    return;
+                }
+
+                long start = System.nanoTime();
+                try {
+                    ResolutionController controller = resolution;
+                    job.useSize(controller != null ? controller.getInputSize() : detector.getInputSize());
+                    converter.toTensor(job.frame, job.input);
+                } catch (Exception e) {
+                    LOG.log(Level.SEVERE, "Convert failed: " + e.getMessage(), e);
+                    recycle(job);
+                    continue;
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    job.workNanos = elapsed;
+                    busyNanos.addAndGet(STAGE_CONVERT, elapsed);
+                }
+                toInfer.put(job);
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    // Stage 2: run the interpreter into the job's own output buffer
+    private void inferLoop() {
+        try {
+            while (running) {
+                FrameJob job = toInfer.take();
+                long start = System.nanoTime();
+                try {
+                    detector.runInference(job.input, job.output);
+                } catch (Exception e) {
+                    LOG.log(Level.SEVERE, "Inference failed: " + e.getMessage(), e);
+                    recycle(job);
+                    continue;
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    job.workNanos += elapsed;
+                    busyNanos.addAndGet(STAGE_INFER, elapsed);
+                }
+                toPost.put(job);
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    // Stage 3: decode + NMS, depth and direction per detection, then hand results to the listener
+    private void postLoop() {
+        try {
+            while (running) {
+                FrameJob job = toPost.take();
+                long start = System.nanoTime();
+                DetectionBatch results = null;
+                int inputSize = job.input.targetSize;
+                try {
+                    results = detector.decode(job.input, job.output);
+                    for (int i = 0; i < results.size(); i++) {
+                        // Normalize the RAW AI coordinates (0 to this frame's input size) to hit the depth map
+                        float normX = results.getCenterX(i) / inputSize;
+                        float normY = results.getCenterY(i) / inputSize;
+                        results.setDistance(i, DepthSampler.distanceAt(job.frame, normX, normY));
+                        results.setDirection(i, Direction.of(results.getCenterX(i), inputSize));
+                    }
+                    record(job.frame);
+                } catch (Exception e) {
+                    LOG.log(Level.SEVERE, "Post-process failed: " + e.getMessage(), e);
+                    if (results != null) results.release();
+                    continue;
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    ResolutionController controller = resolution;
+                    if (controller != null) controller.onFrame(inputSize, job.workNanos + elapsed);
+                    recycle(job);
+                    busyNanos.addAndGet(STAGE_POST, elapsed);
+                }
+
+                processedFrames++;
+                listener.onResults(results);
+                if (processedFrames % STATS_LOG_INTERVAL == 0) {
+                    PERF_LOG.info(formatStats());
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    private boolean takeFromMailbox(FrameJob job) throws InterruptedException {
+        synchronized (this) {
+            while (running && pending == null) wait();
+            if (!running) return false;
+            job.frame = pending;
+            pending = null;
+            // Wakes submitAndWait
+            notifyAll();
+            return true;
+        }
+    }
+
+    private void record(PipelineFrame frame) {
+        FrameRecorder target = recorder;
+        if (target == null) return;
+        try {
+            target.write(frame, frame, frame.getPose());
+        } catch (IOException e) {
+            // Keep detecting; a full disk should not take the pipeline down
+            LOG.log(Level.SEVERE, "Recording stopped: " + e.getMessage(), e);
+            recorder = null;
+        }
+    }
+
+    // Releases the job's frame and makes the job available to stage 1 again
+    private void recycle(FrameJob job) {
+        job.releaseFrame();
+        freeJobs.offer(job);
+    }
+}
@@ -0,0 +1,678 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decodes the raw YOLO output tensor without allocating per frame.
+ *
+ * <p>The interpreter writes straight into one direct buffer that lives as long as the decoder. The
+ * tensor is read back as a flat array, and every candidate that passes the confidence threshold
+ * is appended to reusable primitive arrays. The arrays only grow during the first few frames,
+ * after that nothing is allocated. With {@link #setMaxCandidates} they stop at K entries, and a
+ * primitive min-heap over them keeps the K most confident candidates during the scan.
+ *
+ * <p>Each {@link OutputLayout} has its own kernel. YOLOv5 rows are contiguous per anchor, so the
+ * kernel walks them row by row and skips on objectness first. YOLOv8 is transposed, one plane per
+ * attribute; rather than transposing it, the kernel sweeps each class plane in order keeping a
+ * running best score per anchor, then reads the box of each survivor by stride.
+ *
+ * <p>The anchors are three heads back to back (strides 8, 16 and 32). {@link #decode(float,
+ * HeadFilter)} scans only the heads it is told to, each with its own threshold.
+ *
+ * <p>A quantized (uint8/int8) output is copied out as raw bytes and never dequantized as a whole.
+ * The thresholds are turned into integer thresholds once, the argmax runs on the raw values (the
+ * quantization is monotonic), and only the score and box of an anchor that passes are dequantized.
+ *
+ * <p>With {@link #setObjectnessPrescan}, YOLOv5 rows are not copied out in bulk. A first pass reads
+ * only the objectness column, straight from the direct buffer, into a list of live rows; only
+ * those rows are then copied and go through the class argmax. Background rows, nearly all of them,
+ * cost one strided read instead of a 24-float copy and a compare.
+ *
+ * <p>With {@link #setParallelism}, a head large enough is split into fixed chunks scanned on a
+ * fork-join pool, the calling thread taking the first. Each chunk has its own buffer views and its
+ * own candidate arrays (with the same top-K bound), and they are merged in chunk order, never in
+ * completion order, so the candidates come out the same on every run. Without a K bound, or below
+ * it, that is also exactly the serial order.
+ */
+public class YoloOutputDecoder {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final OutputLayout layout;
+    private final int anchors;
+    private final int classes;
+    private final int inputSize;
+
+    // YOLOv8 only: best class score (float or quantized) and class per anchor, rebuilt every decode
+    private final float[] bestScores;
+    private final int[] bestQuantized;
+    private final int[] bestClasses;
+
+    // Interpreter output, kept for the lifetime of the decoder. Exactly one of output and
+    // quantized is used, depending on the format.
+    private final TensorFormat format;
+    private final ByteBuffer outputBuffer;
+    private final FloatBuffer outputFloats;
+    private final float[] output;
+    private final byte[] quantized;
+
+    // First anchor of each head plus the end, or null if the tensor is not the standard three heads
+    private final int[] headStarts;
+
+    // Quantized reads are (byte ^ signFlip) & 0xFF: uint8 as is, int8 shifted by 128 into 0-255,
+    // so both are one unsigned, order-preserving read; zeroPoint is shifted to match
+    private final int signFlip;
+    private final int zeroPoint;
+
+    // Candidates that survived the threshold
+    private final Candidates candidates = new Candidates();
+    private int maxCandidates = Integer.MAX_VALUE;
+
+    // YOLOv5 objectness pre-scan; liveRows[start..] holds the live rows of the range [start, end),
+    // so parallel chunks never share a slot
+    private boolean objectnessPrescan;
+    private int[] liveRows;
+
+    // Parallel decode: null pool means serial. Chunks are created on first use and reused.
+    private ForkJoinPool pool;
+    private int serialCutoff = Integer.MAX_VALUE;
+    private Chunk[] chunks = new Chunk[0];
+
+    // Class filter compiled to flat arrays: the enabled class indices, recompiled only when a
+    // different filter comes in, and per decoded range each class's cutoff (float and quantized;
+    // the quantized objectness cutoff is inclusive, the class score one exclusive)
+    private ClassFilter compiledFilter;
+    private int[] classList;
+    private final float[] classCutoffs;
+    private final int[] quantizedCutoffs;
+    private final int[] quantizedObjectnessCutoffs;
+    private float minCutoff;
+
+    /** A YOLOv5 decoder for a {@code [1, rows, columns]} output. */
+    public YoloOutputDecoder(int rows, int columns, int inputSize) {
+        this(OutputLayout.YOLO_V5, rows, columns - OutputLayout.YOLO_V5.boxAttributes, inputSize);
+    }
+
+    public YoloOutputDecoder(OutputLayout layout, int anchors, int classes, int inputSize) {
+        this(layout, anchors, classes, inputSize, TensorFormat.FLOAT32);
+    }
+
+    public YoloOutputDecoder(OutputLayout layout, int anchors, int classes, int inputSize,
+                             TensorFormat format) {
+        this.layout = layout;
+        this.anchors = anchors;
+        this.classes = classes;
+        this.inputSize = inputSize;
+        this.format = format;
+
+        int size = anchors * (layout.boxAttributes + classes);
+        outputBuffer = ByteBuffer.allocateDirect(format.type.bytes * size);
+        outputBuffer.order(ByteOrder.nativeOrder());
+        boolean isQuantized = format.isQuantized();
+        outputFloats = isQuantized ? null : outputBuffer.asFloatBuffer();
+        output = isQuantized ? null : new float[size];
+        quantized = isQuantized ? new byte[size] : null;
+        signFlip = format.type == TensorFormat.Type.INT8 ? 0x80 : 0;
+        zeroPoint = format.zeroPoint + signFlip;
+
+        headStarts = headStarts(anchors, inputSize);
+        classCutoffs = new float[classes];
+        quantizedCutoffs = new int[classes];
+        quantizedObjectnessCutoffs = new int[classes];
+
+        boolean transposed = layout == OutputLayout.YOLO_V8;
+        bestScores = transposed && !isQuantized ? new float[anchors] : null;
+        bestQuantized = transposed && isQuantized ? new int[anchors] : null;
+        bestClasses = transposed ? new int[anchors] : null;
+    }
+
+    // Heads at strides 8, 16 and 32 with the same number of anchors per cell, in that order
+    private static int[] headStarts(int anchors, int inputSize) {
+        if (inputSize % 32 != 0) return null;
+        int[] cells = new int[HeadFilter.HEAD_COUNT];
+        int totalCells = 0;
+        for (int head = 0; head < cells.length; head++) {
+            int side = inputSize / (8 << head);
+            cells[head] = side * side;
+            totalCells += cells[head];
+        }
+        if (anchors % totalCells != 0) return null;
+        int perCell = anchors / totalCells;
+        int[] starts = new int[cells.length + 1];
+        for (int head = 0; head < cells.length; head++) starts[head + 1] = starts[head] + perCell * cells[head];
+        return starts;
+    }
+
+    /** A decoder for {@code outputShape} in {@code format}, in whichever layout it is. */
+    public static YoloOutputDecoder forShape(int[] outputShape, TensorFormat format, int classCount,
+                                             int inputSize) {
+        OutputLayout layout = OutputLayout.detect(outputShape, classCount);
+        return new YoloOutputDecoder(layout, layout.anchorCount(outputShape),
+                layout.classCount(outputShape), inputSize, format);
+    }
+
+    /** Side of the model input this decoder scales boxes to. */
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public TensorFormat getFormat() {
+        return format;
+    }
+
+    public OutputLayout getLayout() {
+        return layout;
+    }
+
+    public int getClassCount() {
+        return classes;
+    }
+
+    /** Buffer to hand to {@code Interpreter.run} as the output. */
+    public ByteBuffer getOutputBuffer() {
+        outputBuffer.rewind();
+        return outputBuffer;
+    }
+
+    /**
+     * Scans the tensor last written to {@link #getOutputBuffer()} and collects every anchor whose
+     * best class score (and, for YOLOv5, objectness) passes {@code confThreshold}.
+     *
+     * @return number of candidates, readable through the getters below
+     */
+    public int decode(float confThreshold) {
+        return decode(confThreshold, HeadFilter.ALL);
+    }
+
+    /**
+     * Like {@link #decode(float)}, but only over the heads {@code filter} enables, each at its own
+     * threshold. Skipped heads are neither copied out of the output buffer nor scanned. If the
+     * tensor does not split into the three standard heads, the filter is ignored.
+     */
+    public int decode(float confThreshold, HeadFilter filter) {
+        return decode(confThreshold, filter, ClassFilter.ALL);
+    }
+
+    /**
+     * Like {@link #decode(float, HeadFilter)}, but the argmax only scores the classes
+     * {@code classFilter} enables, and each class has its own cutoff. A class without one uses its
+     * head's threshold. For YOLOv8 the planes of disabled classes are not even copied.
+     */
+    public int decode(float confThreshold, HeadFilter filter, ClassFilter classFilter) {
+        candidates.reset(maxCandidates);
+        if (classFilter != compiledFilter) {
+            classList = classFilter.enabledClasses(classes);
+            compiledFilter = classFilter;
+        }
+        if (classList.length == 0) return 0;
+
+        if (headStarts == null) {
+            decodeRange(0, anchors, confThreshold);
+            return candidates.count;
+        }
+        for (int head = 0; head < HeadFilter.HEAD_COUNT; head++) {
+            if (!filter.isEnabled(head)) continue;
+            decodeRange(headStarts[head], headStarts[head + 1], filter.threshold(head, confThreshold));
+        }
+        return candidates.count;
+    }
+
+    /**
+     * Keeps at most the {@code maxCandidates} highest-scoring candidates per decode, so NMS works
+     * on a bounded set however noisy the frame. 0 or less keeps every candidate.
+     */
+    public void setMaxCandidates(int maxCandidates) {
+        this.maxCandidates = maxCandidates > 0 ? maxCandidates : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Scans large heads in parallel on {@code pool}: a range is split into at most one chunk per
+     * pool thread plus the caller, each at least {@code serialCutoff} anchors, so ranges shorter
+     * than twice that stay serial. A null pool decodes serially.
+     */
+    public void setParallelism(ForkJoinPool pool, int serialCutoff) {
+        this.pool = pool;
+        this.serialCutoff = Math.max(1, serialCutoff);
+    }
+
+    /**
+     * Pre-scans the objectness column and only copies and scores the rows that pass it. Same
+     * candidates, in the same order, as without. YOLOv5 only; YOLOv8 has no objectness and ignores
+     * it.
+     */
+    public void setObjectnessPrescan(boolean prescan) {
+        objectnessPrescan = prescan;
+        if (prescan && liveRows == null && layout == OutputLayout.YOLO_V5) liveRows = new int[anchors];
+    }
+
+    /** First anchor of {@code head}, or -1 if the tensor does not split into the standard heads. */
+    public int getHeadStart(int head) {
+        return headStarts != null ? headStarts[head] : -1;
+    }
+
+    // Anchors [start, end) at one threshold, serially or split into chunks
+    private void decodeRange(int start, int end, float confThreshold) {
+        if (start == end) return;
+        compileCutoffs(confThreshold);
+        int chunkCount = pool == null ? 1
+                : Math.min(pool.getParallelism() + 1, (end - start) / serialCutoff);
+        if (chunkCount < 2) {
+            scanRange(start, end, outputFloats, outputBuffer, candidates);
+            return;
+        }
+
+        // 1. Fixed boundaries, so the split only depends on the range and the pool size
+        if (chunks.length < chunkCount) {
+            Chunk[] grown = Arrays.copyOf(chunks, chunkCount);
+            for (int i = chunks.length; i < chunkCount; i++) grown[i] = new Chunk();
+            chunks = grown;
+        }
+        long length = end - start;
+        for (int i = 0; i < chunkCount; i++) {
+            Chunk chunk = chunks[i];
+            chunk.start = start + (int) (length * i / chunkCount);
+            chunk.end = start + (int) (length * (i + 1) / chunkCount);
+            chunk.candidates.reset(maxCandidates);
+        }
+
+        // 2. The pool takes every chunk but the first, which runs on this thread
+        for (int i = 1; i < chunkCount; i++) {
+            chunks[i].reinitialize();
+            pool.execute(chunks[i]);
+        }
+        try {
+            chunks[0].compute();
+        } finally {
+            // Never leave a chunk running into the next decode
+            for (int i = 1; i < chunkCount; i++) chunks[i].join();
+        }
+
+        // 3. Merge in chunk order through the same top-K bound
+        for (int i = 0; i < chunkCount; i++) candidates.addAll(chunks[i].candidates);
+    }
+
+    // Copy anchors [start, end) out of the direct buffer through the given views, then run the
+    // layout's kernel into out
+    private void scanRange(int start, int end, FloatBuffer floats, ByteBuffer bytes, Candidates out) {
+        boolean rows = layout == OutputLayout.YOLO_V5;
+        int attributes = layout.boxAttributes + classes;
+        if (rows && objectnessPrescan) {
+            // Objectness first, then only the live rows are copied
+            if (quantized != null) {
+                decodeV5QuantizedLive(start, prescanQuantized(bytes, start, end), bytes, out);
+            } else {
+                decodeV5Live(start, prescanFloats(floats, start, end), floats, out);
+            }
+        } else if (quantized != null) {
+            // Raw bytes only; nothing is dequantized up front
+            if (rows) {
+                copyBytes(bytes, start * attributes, (end - start) * attributes);
+                decodeV5Quantized(start, end, out);
+            } else {
+                for (int a = 0; a < 4; a++) copyBytes(bytes, a * anchors + start, end - start);
+                for (int c : classList) copyBytes(bytes, (4 + c) * anchors + start, end - start);
+                decodeV8Quantized(start, end, out);
+            }
+        } else {
+            // Bulk copies, then plain array reads
+            if (rows) {
+                copyFloats(floats, start * attributes, (end - start) * attributes);
+                decodeV5(start, end, out);
+            } else {
+                for (int a = 0; a < 4; a++) copyFloats(floats, a * anchors + start, end - start);
+                for (int c : classList) copyFloats(floats, (4 + c) * anchors + start, end - start);
+                decodeV8(start, end, out);
+            }
+        }
+    }
+
+    // Per-class cutoffs for the range about to be decoded. The lowest one is only the v5 early-out
+    // on objectness; after the argmax, objectness must still pass the winning class's own cutoff.
+    private void compileCutoffs(float confThreshold) {
+        ClassFilter filter = compiledFilter;
+        minCutoff = Float.MAX_VALUE;
+        for (int c : classList) {
+            float cutoff = filter.threshold(c, confThreshold);
+            classCutoffs[c] = cutoff;
+            minCutoff = Math.min(minCutoff, cutoff);
+            if (quantized != null) {
+                quantizedCutoffs[c] = minQuantized(Math.nextUp(cutoff));
+                quantizedObjectnessCutoffs[c] = minQuantized(cutoff);
+            }
+        }
+    }
+
+    private void copyFloats(FloatBuffer floats, int offset, int length) {
+        floats.position(offset);
+        floats.get(output, offset, length);
+    }
+
+    private void copyBytes(ByteBuffer bytes, int offset, int length) {
+        bytes.position(offset);
+        bytes.get(quantized, offset, length);
+        bytes.rewind();
+    }
+
+    // [anchors, 5 + classes]: objectness rejects most rows before the class argmax
+    private void decodeV5(int start, int end, Candidates out) {
+        int columns = 5 + classes;
+        float minObjectness = minCutoff;
+        for (int row = start, base = start * columns; row < end; row++, base += columns) {
+            // Objectness first; most rows stop here
+            if (output[base + 4] < minObjectness) continue;
+            decodeV5Row(base, out);
+        }
+    }
+
+    // Pre-scan: live row indices of [start, end) into liveRows from start on. Every row is
+    // written and the count only advances on a live one, so the loop has no branch to mispredict.
+    private int prescanFloats(FloatBuffer floats, int start, int end) {
+        int[] live = liveRows;
+        int columns = 5 + classes;
+        float minObjectness = minCutoff;
+        int count = start;
+        for (int row = start, index = start * columns + 4; row < end; row++, index += columns) {
+            live[count] = row;
+            count += floats.get(index) < minObjectness ? 0 : 1;
+        }
+        return count - start;
+    }
+
+    // The live rows listed by prescanFloats: copy each one out, then score it
+    private void decodeV5Live(int start, int liveCount, FloatBuffer floats, Candidates out) {
+        int columns = 5 + classes;
+        for (int k = start; k < start + liveCount; k++) {
+            int base = liveRows[k] * columns;
+            copyFloats(floats, base, columns);
+            decodeV5Row(base, out);
+        }
+    }
+
+    // One row that passed the objectness early-out, already in output
+    private void decodeV5Row(int base, Candidates out) {
+        // 1. Argmax over the enabled class scores of this row
+        float maxClassScore = 0f;
+        int classId = classList[0];
+        for (int c : classList) {
+            float score = output[base + 5 + c];
+            if (score > maxClassScore) {
+                maxClassScore = score;
+                classId = c;
+            }
+        }
+        float cutoff = classCutoffs[classId];
+        if (maxClassScore <= cutoff || output[base + 4] < cutoff) return;
+
+        // 2. Normalized center/size -> corners in raw input-pixel space
+        float centerX = output[base] * inputSize;
+        float centerY = output[base + 1] * inputSize;
+        float width = output[base + 2] * inputSize;
+        float height = output[base + 3] * inputSize;
+        out.add(centerX - width / 2f, centerY - height / 2f,
+                centerX + width / 2f, centerY + height / 2f, maxClassScore, classId);
+    }
+
+    // [4 + classes, anchors]: no objectness, so the class planes themselves are the filter
+    private void decodeV8(int start, int end, Candidates out) {
+        // 1. Running argmax over the enabled classes, one contiguous class plane at a time
+        int[] list = classList;
+        System.arraycopy(output, (4 + list[0]) * anchors + start, bestScores, start, end - start);
+        Arrays.fill(bestClasses, start, end, list[0]);
+        for (int k = 1; k < list.length; k++) {
+            int c = list[k];
+            int plane = (4 + c) * anchors;
+            for (int i = start; i < end; i++) {
+                float score = output[plane + i];
+                if (score > bestScores[i]) {
+                    bestScores[i] = score;
+                    bestClasses[i] = c;
+                }
+            }
+        }
+
+        // 2. Box planes are read by stride, only for the anchors that passed their class cutoff
+        float[] cutoffs = classCutoffs;
+        for (int i = start; i < end; i++) {
+            float score = bestScores[i];
+            if (score <= cutoffs[bestClasses[i]]) continue;
+            float centerX = output[i] * inputSize;
+            float centerY = output[anchors + i] * inputSize;
+            float width = output[2 * anchors + i] * inputSize;
+            float height = output[3 * anchors + i] * inputSize;
+            out.add(centerX - width / 2f, centerY - height / 2f,
+                    centerX + width / 2f, centerY + height / 2f, score, bestClasses[i]);
+        }
+    }
+
+    // decodeV5 on raw bytes: objectness and class thresholds compared as integers
+    private void decodeV5Quantized(int start, int end, Candidates out) {
+        byte[] raw = quantized;
+        int flip = signFlip;
+        int columns = 5 + classes;
+        int minObjectness = minQuantized(minCutoff);
+        for (int row = start, base = start * columns; row < end; row++, base += columns) {
+            // Quantized objectness first; most rows stop here
+            if (((raw[base + 4] ^ flip) & 0xFF) < minObjectness) continue;
+            decodeV5QuantizedRow(base, out);
+        }
+    }
+
+    // prescanFloats on raw bytes
+    private int prescanQuantized(ByteBuffer bytes, int start, int end) {
+        int[] live = liveRows;
+        int flip = signFlip;
+        int columns = 5 + classes;
+        int minObjectness = minQuantized(minCutoff);
+        int count = start;
+        for (int row = start, index = start * columns + 4; row < end; row++, index += columns) {
+            live[count] = row;
+            count += ((bytes.get(index) ^ flip) & 0xFF) < minObjectness ? 0 : 1;
+        }
+        return count - start;
+    }
+
+    // decodeV5Live on raw bytes
+    private void decodeV5QuantizedLive(int start, int liveCount, ByteBuffer bytes, Candidates out) {
+        int columns = 5 + classes;
+        for (int k = start; k < start + liveCount; k++) {
+            int base = liveRows[k] * columns;
+            copyBytes(bytes, base, columns);
+            decodeV5QuantizedRow(base, out);
+        }
+    }
+
+    // decodeV5Row on raw bytes
+    private void decodeV5QuantizedRow(int base, Candidates out) {
+        byte[] raw = quantized;
+        int flip = signFlip;
+
+        // 1. Argmax on the raw values of the enabled classes
+        int maxClassScore = -1;
+        int classId = classList[0];
+        for (int c : classList) {
+            int score = (raw[base + 5 + c] ^ flip) & 0xFF;
+            if (score > maxClassScore) {
+                maxClassScore = score;
+                classId = c;
+            }
+        }
+        if (maxClassScore < quantizedCutoffs[classId]
+                || ((raw[base + 4] ^ flip) & 0xFF) < quantizedObjectnessCutoffs[classId]) return;
+
+        // 2. Only now dequantize this row's score and box
+        addQuantized(out, raw[base], raw[base + 1], raw[base + 2], raw[base + 3], maxClassScore, classId);
+    }
+
+    // decodeV8 on raw bytes
+    private void decodeV8Quantized(int start, int end, Candidates out) {
+        byte[] raw = quantized;
+        int flip = signFlip;
+        int[] list = classList;
+
+        // 1. Running argmax on the raw values of the enabled classes, one plane at a time
+        for (int i = start, plane = (4 + list[0]) * anchors; i < end; i++) {
+            bestQuantized[i] = (raw[plane + i] ^ flip) & 0xFF;
+        }
+        Arrays.fill(bestClasses, start, end, list[0]);
+        for (int k = 1; k < list.length; k++) {
+            int c = list[k];
+            int plane = (4 + c) * anchors;
+            for (int i = start; i < end; i++) {
+                int score = (raw[plane + i] ^ flip) & 0xFF;
+                if (score > bestQuantized[i]) {
+                    bestQuantized[i] = score;
+                    bestClasses[i] = c;
+                }
+            }
+        }
+
+        // 2. Integer per-class cutoff, then dequantize the survivors only
+        int[] cutoffs = quantizedCutoffs;
+        for (int i = start; i < end; i++) {
+            if (bestQuantized[i] < cutoffs[bestClasses[i]]) continue;
+            addQuantized(out, raw[i], raw[anchors + i], raw[2 * anchors + i], raw[3 * anchors + i],
+                    bestQuantized[i], bestClasses[i]);
+        }
+    }
+
+    // Smallest shifted raw value whose real value is at least threshold; 256 if none is
+    private int minQuantized(float threshold) {
+        int q = format.quantizedCeil(threshold) + signFlip;
+        return Math.max(0, Math.min(256, q));
+    }
+
+    private float dequantize(int shifted) {
+        return format.scale * (shifted - zeroPoint);
+    }
+
+    private void addQuantized(Candidates out, byte x, byte y, byte w, byte h, int score, int classId) {
+        float centerX = dequantize((x ^ signFlip) & 0xFF) * inputSize;
+        float centerY = dequantize((y ^ signFlip) & 0xFF) * inputSize;
+        float width = dequantize((w ^ signFlip) & 0xFF) * inputSize;
+        float height = dequantize((h ^ signFlip) & 0xFF) * inputSize;
+        out.add(centerX - width / 2f, centerY - height / 2f,
+                centerX + width / 2f, centerY + height / 2f, dequantize(score), classId);
+    }
+
+    public int getCount() {
+        return candidates.count;
+    }
+
+    /** Corners of all candidates, packed as left, top, right, bottom. */
+    public float[] getBoxes() {
+        return candidates.boxes;
+    }
+
+    public float[] getScores() {
+        return candidates.scores;
+    }
+
+    public int[] getClassIds() {
+        return candidates.classIds;
+    }
+
+    /**
+     * Reusable candidate arrays, optionally bounded to the K best. Boxes are left, top, right,
+     * bottom in input space.
+     */
+    private static final class Candidates {
+        float[] boxes = new float[4 * INITIAL_CAPACITY];
+        float[] scores = new float[INITIAL_CAPACITY];
+        int[] classIds = new int[INITIAL_CAPACITY];
+        int count;
+
+        // Top-K bound: once count reaches maxCandidates, heap orders the slots as a min-heap on
+        // score and a better candidate overwrites the weakest one
+        private int maxCandidates = Integer.MAX_VALUE;
+        private int[] heap = new int[0];
+        private boolean heapBuilt;
+
+        void reset(int maxCandidates) {
+            this.maxCandidates = maxCandidates;
+            count = 0;
+            heapBuilt = false;
+        }
+
+        // Every candidate of other, in slot order
+        void addAll(Candidates other) {
+            for (int i = 0; i < other.count; i++) {
+                int b = 4 * i;
+                add(other.boxes[b], other.boxes[b + 1], other.boxes[b + 2], other.boxes[b + 3],
+                        other.scores[i], other.classIds[i]);
+            }
+        }
+
+        void add(float left, float top, float right, float bottom, float score, int classId) {
+            int slot;
+            if (count < maxCandidates) {
+                if (count == scores.length) {
+                    int capacity = (int) Math.min((long) count * 2, maxCandidates);
+                    boxes = Arrays.copyOf(boxes, 4 * capacity);
+                    scores = Arrays.copyOf(scores, capacity);
+                    classIds = Arrays.copyOf(classIds, capacity);
+                }
+                slot = count++;
+            } else {
+                // Full: replace the weakest kept candidate, if this one beats it (ties keep the first)
+                if (!heapBuilt) buildHeap();
+                slot = heap[0];
+                if (score <= scores[slot]) return;
+            }
+
+            int b = 4 * slot;
+            boxes[b] = left;
+            boxes[b + 1] = top;
+            boxes[b + 2] = right;
+            boxes[b + 3] = bottom;
+            scores[slot] = score;
+            classIds[slot] = classId;
+            if (heapBuilt) siftDown(0);
+        }
+
+        // Bottom-up heapify of all count slots, once per decode, when the first extra candidate
+        // arrives
+        private void buildHeap() {
+            if (heap.length < count) heap = new int[count];
+            for (int i = 0; i < count; i++) heap[i] = i;
+            for (int i = count / 2 - 1; i >= 0; i--) siftDown(i);
+            heapBuilt = true;
+        }
+
+        private void siftDown(int i) {
+            int[] h = heap;
+            int n = count;
+            int slot = h[i];
+            float score = scores[slot];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= n) break;
+                if (child + 1 < n && scores[h[child + 1]] < scores[h[child]]) child++;
+                if (scores[h[child]] >= score) break;
+                h[i] = h[child];
+                i = child;
+            }
+            h[i] = slot;
+        }
+    }
+
+    // One slice of a parallel decodeRange, with its own buffer views (positions are per view)
+    // and its own candidates
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Candidates candidates = new Candidates();
+        final FloatBuffer floats = outputFloats != null ? outputFloats.duplicate() : null;
+        final ByteBuffer bytes = outputBuffer.duplicate();
+        int start;
+        int end;
+
+        @Override
+        protected void compute() {
+            scanRange(start, end, floats, bytes, candidates);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * YUV_420_888 to ARGB pixels or straight to the model input, using integer fixed-point BT.601.
+ *
+ * <p>Works on any {@link FrameSource}. Each plane is bulk-copied into reused scratch once per
+ * frame, and rows are split into stripes that convert in parallel; the result is identical for
+ * any stripe count. Not thread-safe: use one converter per converting thread.
+ */
+public class YuvConverter {
+
+    // 0-255 -> 0.0-1.0, so the tensor path never divides per channel
+    private static final float[] NORMALIZE = new float[256];
+    static {
+        for (int i = 0; i < 256; i++) NORMALIZE[i] = i / 255.0f;
+    }
+
+    // BT.601 coefficients in 16.16 fixed point (1.370705, 0.337633, 0.698001, 1.732446)
+    private static final int SHIFT = 16;
+    private static final int R_V = 89831;
+    private static final int G_U = 22127;
+    private static final int G_V = 45744;
+    private static final int B_U = 113538;
+
+    // Chroma layouts with a dedicated inner loop
+    private static final int LAYOUT_INTERLEAVED = 2; // NV21/NV12, U and V share one buffer
+    private static final int LAYOUT_PLANAR = 1;      // I420, separate U and V planes
+
+    // Whole-plane copies shared by both paths, reused while the camera resolution stays the same
+    private byte[] yBytes = new byte[0];
+    private byte[] uBytes = new byte[0];
+    private byte[] vBytes = new byte[0];
+    private int yRowStride;
+    private int uvRowStride;
+    private int uvPixelStride;
+
+    // toArgb output and geometry of the frame being converted
+    private int[] argbPixels;
+    private int rgbWidth;
+
+    // Fused tensor path: per-stripe row scratch and the rotation/letterbox lookup tables
+    private float[][] tensorRows = new float[0][];
+    private byte[][] quantizedRows = new byte[0][];
+    private int[] columnToSourceY = new int[0];
+    private int[] rowToSourceX = new int[0];
+    private int mappedWidth;
+    private int mappedHeight;
+    private int mappedTarget;
+    private ModelInput tensorOut;
+    private int tensorXStart;
+    private int tensorXEnd;
+
+    // Row stripes run in parallel; the tasks are fields so a frame allocates nothing
+    private StripeExecutor stripes = new StripeExecutor(StripeExecutor.defaultStripeCount());
+    private final StripeExecutor.StripeTask rgbRowsTask = this::convertRgbRows;
+    private final StripeExecutor.StripeTask tensorRowsTask = this::convertTensorRows;
+
+    /** Number of row stripes converted in parallel; 1 converts on the calling thread only. */
+    public void setStripeCount(int stripeCount) {
+        stripes = new StripeExecutor(stripeCount);
+    }
+
+    /**
+     * Converts {@code frame} into {@code out} as opaque ARGB, row by row with no padding.
+     * {@code out} must hold at least width * height pixels.
+     *
+     * <p>The inner loop is chosen from the chroma pixel stride, so the interleaved and planar
+     * layouts each run a loop without per-pixel stride multiplications.
+     */
+    public void toArgb(FrameSource frame, int[] out) {
+        // 1. Bulk copy the planes
+        copyPlanes(frame);
+        argbPixels = out;
+        rgbWidth = frame.getWidth();
+
+        // 2. Convert in row stripes
+        stripes.run(frame.getHeight(), rgbRowsTask);
+        argbPixels = null;
+    }
+
+    private void convertRgbRows(int stripe, int rowStart, int rowEnd) {
+        int width = rgbWidth;
+        for (int y = rowStart; y < rowEnd; y++) {
+            int yOffset = y * yRowStride;
+            int uvOffset = (y >> 1) * uvRowStride;
+
+            // Convert with the loop specialized for this layout
+            switch (uvPixelStride) {
+                case LAYOUT_INTERLEAVED:
+                    convertRowInterleaved(yOffset, uvOffset, argbPixels, y * width, width);
+                    break;
+                case LAYOUT_PLANAR:
+                    convertRowPlanar(yOffset, uvOffset, argbPixels, y * width, width);
+                    break;
+                default:
+                    convertRow(yOffset, uvOffset, argbPixels, y * width, width);
+                    break;
+            }
+        }
+    }
+
+    // pixelStride 2: the chroma sample for pixels x and x + 1 sits at index x
+    private void convertRowInterleaved(int yOffset, int uvOffset, int[] out, int outOffset, int width) {
+        byte[] yPlane = yBytes;
+        byte[] uPlane = uBytes;
+        byte[] vPlane = vBytes;
+        for (int x = 0; x < width; x += 2) {
+            int u = (uPlane[uvOffset + x] & 0xFF) - 128;
+            int v = (vPlane[uvOffset + x] & 0xFF) - 128;
+            int rv = R_V * v;
+            int guv = G_U * u + G_V * v;
+            int bu = B_U * u;
+            out[outOffset + x] = pack((yPlane[yOffset + x] & 0xFF) << SHIFT, rv, guv, bu);
+            if (x + 1 < width) {
+                out[outOffset + x + 1] = pack((yPlane[yOffset + x + 1] & 0xFF) << SHIFT, rv, guv, bu);
+            }
+        }
+    }
+
+    // pixelStride 1: the chroma sample for pixels x and x + 1 sits at index x / 2
+    private void convertRowPlanar(int yOffset, int uvOffset, int[] out, int outOffset, int width) {
+        byte[] yPlane = yBytes;
+        byte[] uPlane = uBytes;
+        byte[] vPlane = vBytes;
+        for (int x = 0; x < width; x += 2) {
+            int c = uvOffset + (x >> 1);
+            int u = (uPlane[c] & 0xFF) - 128;
+            int v = (vPlane[c] & 0xFF) - 128;
+            int rv = R_V * v;
+            int guv = G_U * u + G_V * v;
+            int bu = B_U * u;
+            out[outOffset + x] = pack((yPlane[yOffset + x] & 0xFF) << SHIFT, rv, guv, bu);
+            if (x + 1 < width) {
+                out[outOffset + x + 1] = pack((yPlane[yOffset + x + 1] & 0xFF) << SHIFT, rv, guv, bu);
+            }
+        }
+    }
+
+    // Any other pixel stride
+    private void convertRow(int yOffset, int uvOffset, int[] out, int outOffset, int width) {
+        for (int x = 0; x < width; x++) {
+            int c = uvOffset + (x >> 1) * uvPixelStride;
+            out[outOffset + x] = yuvToArgb(yBytes[yOffset + x], uBytes[c], vBytes[c]);
+        }
+    }
+
+    /**
+     * Converts a landscape camera image straight into the model input in one pass.
+     *
+     * <p>Equivalent to {@link #toArgb}, rotating the image 90 degrees clockwise, letterboxing it
+     * and packing it with {@link ArgbPacker}, but without any intermediate image: every
+     * output pixel is mapped back to its source sample with index math (nearest neighbour, like
+     * {@code Canvas.drawBitmap} without a paint), and the normalized RGB floats are written into the
+     * buffer owned by {@code out}. For a quantized input the channels go through its channel table
+     * into bytes instead. Output rows are filled in parallel stripes.
+     */
+    public void toTensor(FrameSource frame, ModelInput out) {
+        int srcWidth = frame.getWidth();
+        int srcHeight = frame.getHeight();
+        int target = out.targetSize;
+
+        // 1. Rotated 90 degrees clockwise, the portrait image is srcHeight wide and srcWidth tall
+        out.setLetterbox(srcHeight, srcWidth, target);
+        int newWidth = (int) (srcHeight * out.scale);
+        int newHeight = (int) (srcWidth * out.scale);
+        updateMapping(srcWidth, srcHeight, target, out.xOffset, out.yOffset, newWidth, newHeight);
+
+        // 2. One bulk copy per plane instead of three ByteBuffer.get calls per pixel
+        copyPlanes(frame);
+
+        // 3. Fill the output rows in stripes, each with its own row scratch and buffer view
+        int stripeCount = stripes.getStripeCount();
+        if (tensorRows.length < stripeCount) tensorRows = new float[stripeCount][];
+        if (quantizedRows.length < stripeCount) quantizedRows = new byte[stripeCount][];
+        out.prepareStripes(stripeCount);
+        tensorOut = out;
+        tensorXStart = out.xOffset;
+        tensorXEnd = out.xOffset + newWidth;
+        stripes.run(target, tensorRowsTask);
+        tensorOut = null;
+    }
+
+    private void convertTensorRows(int stripe, int rowStart, int rowEnd) {
+        if (tensorOut.isQuantized()) {
+            convertQuantizedRows(stripe, rowStart, rowEnd);
+            return;
+        }
+        int target = mappedTarget;
+        float[] row = tensorRows[stripe];
+        if (row == null || row.length != 3 * target) {
+            row = new float[3 * target];
+            tensorRows[stripe] = row;
+        }
+        FloatBuffer floats = tensorOut.stripeFloats(stripe);
+        floats.position(rowStart * 3 * target);
+        int xStart = tensorXStart;
+        int xEnd = tensorXEnd;
+
+        for (int dy = rowStart; dy < rowEnd; dy++) {
+            int srcX = rowToSourceX[dy];
+            if (srcX < 0) {
+                // Black bar above or below the image
+                Arrays.fill(row, 0f);
+            } else {
+                Arrays.fill(row, 0, 3 * xStart, 0f);
+                Arrays.fill(row, 3 * xEnd, row.length, 0f);
+                int uvColumn = (srcX / 2) * uvPixelStride;
+                for (int dx = xStart; dx < xEnd; dx++) {
+                    // Output column dx walks down the source column srcX (bottom to top)
+                    int srcY = columnToSourceY[dx];
+                    int uvIdx = (srcY / 2) * uvRowStride + uvColumn;
+                    int argb = yuvToArgb(yBytes[srcY * yRowStride + srcX], uBytes[uvIdx], vBytes[uvIdx]);
+
+                    int o = 3 * dx;
+                    row[o] = NORMALIZE[(argb >> 16) & 0xFF];
+                    row[o + 1] = NORMALIZE[(argb >> 8) & 0xFF];
+                    row[o + 2] = NORMALIZE[argb & 0xFF];
+                }
+            }
+            floats.put(row);
+        }
+    }
+
+    // Same walk as convertTensorRows, writing quantized bytes
+    private void convertQuantizedRows(int stripe, int rowStart, int rowEnd) {
+        int target = mappedTarget;
+        byte[] row = quantizedRows[stripe];
+        if (row == null || row.length != 3 * target) {
+            row = new byte[3 * target];
+            quantizedRows[stripe] = row;
+        }
+        byte[] table = tensorOut.channelTable;
+        byte black = table[0];
+        ByteBuffer bytes = tensorOut.stripeBytes(stripe);
+        bytes.position(rowStart * 3 * target);
+        int xStart = tensorXStart;
+        int xEnd = tensorXEnd;
+
+        for (int dy = rowStart; dy < rowEnd; dy++) {
+            int srcX = rowToSourceX[dy];
+            if (srcX < 0) {
+                Arrays.fill(row, black);
+            } else {
+                Arrays.fill(row, 0, 3 * xStart, black);
+                Arrays.fill(row, 3 * xEnd, row.length, black);
+                int uvColumn = (srcX / 2) * uvPixelStride;
+                for (int dx = xStart; dx < xEnd; dx++) {
+                    int srcY = columnToSourceY[dx];
+                    int uvIdx = (srcY / 2) * uvRowStride + uvColumn;
+                    int argb = yuvToArgb(yBytes[srcY * yRowStride + srcX], uBytes[uvIdx], vBytes[uvIdx]);
+
+                    int o = 3 * dx;
+                    row[o] = table[(argb >> 16) & 0xFF];
+                    row[o + 1] = table[(argb >> 8) & 0xFF];
+                    row[o + 2] = table[argb & 0xFF];
+                }
+            }
+            bytes.put(row);
+        }
+    }
+
+    // Output row -> source column and output column -> source row, rebuilt only on size changes
+    private void updateMapping(int srcWidth, int srcHeight, int target, int xOffset, int yOffset,
+                               int newWidth, int newHeight) {
+        if (srcWidth == mappedWidth && srcHeight == mappedHeight && target == mappedTarget) return;
+        mappedWidth = srcWidth;
+        mappedHeight = srcHeight;
+        mappedTarget = target;
+
+        columnToSourceY = new int[target];
+        rowToSourceX = new int[target];
+        for (int d = 0; d < target; d++) {
+            // Rotated column rx comes from source row (srcHeight - 1 - rx)
+            int dx = d - xOffset;
+            int rx = (int) ((dx + 0.5f) * srcHeight / newWidth);
+            columnToSourceY[d] = dx < 0 || dx >= newWidth ? -1 : srcHeight - 1 - rx;
+
+            // Rotated row ry comes from source column ry
+            int dy = d - yOffset;
+            rowToSourceX[d] = dy < 0 || dy >= newHeight ? -1 : (int) ((dy + 0.5f) * srcWidth / newHeight);
+        }
+    }
+
+    private void copyPlanes(FrameSource frame) {
+        yBytes = copyPlane(frame.getYPlane(), yBytes);
+        uBytes = copyPlane(frame.getUPlane(), uBytes);
+        vBytes = copyPlane(frame.getVPlane(), vBytes);
+        yRowStride = frame.getYRowStride();
+        uvRowStride = frame.getUvRowStride();
+        uvPixelStride = frame.getUvPixelStride();
+    }
+
+    private static byte[] copyPlane(ByteBuffer plane, byte[] scratch) {
+        plane.rewind();
+        int size = plane.remaining();
+        if (scratch.length < size) scratch = new byte[size];
+        plane.get(scratch, 0, size);
+        plane.rewind();
+        return scratch;
+    }
+
+    /** Converts one YUV sample (U and V still offset by 128) to an opaque ARGB pixel. */
+    static int yuvToArgb(byte yByte, byte uByte, byte vByte) {
+        int u = (uByte & 0xFF) - 128;
+        int v = (vByte & 0xFF) - 128;
+        return pack((yByte & 0xFF) << SHIFT, R_V * v, G_U * u + G_V * v, B_U * u);
+    }
+
+    // Fixed-point channels -> clamped, opaque ARGB
+    private static int pack(int yScaled, int rv, int guv, int bu) {
+        int r = (yScaled + rv) >> SHIFT;
+        int g = (yScaled - guv) >> SHIFT;
+        int b = (yScaled + bu) >> SHIFT;
+
+        // Clamp values to 0-255, branching only when a channel is out of range
+        if ((r & ~0xFF) != 0) r = r < 0 ? 0 : 255;
+        if ((g & ~0xFF) != 0) g = g < 0 ? 0 : 255;
+        if ((b & ~0xFF) != 0) b = b < 0 ? 0 : 255;
+
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,42 @@
+package com.google.ar.core.examples.java.vision;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class ArgbPackerTest {
+
+    @Test
+    public void stripedPackMatchesSerial() {
+        int size = 64;
+        int[] pixels = new int[size * size];
+        Random random = new Random(5L);
+        for (int i = 0; i < pixels.length; i++) pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+
+        TensorFormat uint8 = TensorFormat.quantized(TensorFormat.Type.UINT8, 1f / 255f, 0);
+        for (TensorFormat format : new TensorFormat[] {TensorFormat.FLOAT32, uint8}) {
+            assertArrayEquals(format.toString(), pack(pixels, size, format, 1), pack(pixels, size, format, 3));
+        }
+    }
+
+    @Test
+    public void packNormalizesChannels() {
+        ModelInput input = new ModelInput(2);
+        ArgbPacker packer = new ArgbPacker();
+        packer.setStripeCount(1);
+        packer.pack(new int[] {0xFFFF0000, 0xFF00FF00, 0xFF0000FF, 0xFFFFFFFF}, input);
+        float[] floats = new float[12];
+        input.floats.rewind();
+        input.floats.get(floats);
+        assertArrayEquals(new float[] {1, 0, 0, 0, 1, 0, 0, 0, 1, 1, 1, 1}, floats, 0f);
+    }
+
+    private static byte[] pack(int[] pixels, int size, TensorFormat format, int stripes) {
+        ArgbPacker packer = new ArgbPacker();
+        packer.setStripeCount(stripes);
+        ModelInput input = new ModelInput(size, format);
+        packer.pack(pixels, input);
+        return YuvConverterTest.bytes(input.buffer);
+    }
+}
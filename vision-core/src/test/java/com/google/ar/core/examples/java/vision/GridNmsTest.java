@@ -0,0 +1,107 @@
+package com.google.ar.core.examples.java.vision;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class GridNmsTest {
+    private static final int INPUT_SIZE = 640;
+    private static final float IOU_THRESHOLD = 0.45f;
+    private static final int CLASSES = 5;
+
+    private final Random random = new Random(7L);
+
+    /** Clustered boxes, some spanning several cells, plus a few duplicated scores for stability. */
+    private float[] boxes(int count) {
+        float[] boxes = new float[4 * count];
+        for (int i = 0; i < count; i++) {
+            float cx = (i % 7 == 0 ? 0f : 80f * (i % 5)) + 600f * random.nextFloat();
+            float cy = 640f * random.nextFloat();
+            float w = 8f + (i % 11 == 0 ? 300f : 60f) * random.nextFloat();
+            float h = 8f + 60f * random.nextFloat();
+            boxes[4 * i] = Math.max(0f, cx - w / 2);
+            boxes[4 * i + 1] = Math.max(0f, cy - h / 2);
+            boxes[4 * i + 2] = Math.min(INPUT_SIZE - 1f, cx + w / 2);
+            boxes[4 * i + 3] = Math.min(INPUT_SIZE - 1f, cy + h / 2);
+        }
+        return boxes;
+    }
+
+    private float[] scores(int count) {
+        float[] scores = new float[count];
+        for (int i = 0; i < count; i++) scores[i] = i % 9 == 0 ? 0.75f : 0.5f + 0.5f * random.nextFloat();
+        return scores;
+    }
+
+    /**
+     * The pairwise greedy loop GridNms replaced: stable sort, then drop everything overlapping
+     * (of the same class, if {@code classIds} is given).
+     */
+    private static int[] pairwise(float[] boxes, float[] scores, int[] classIds, int count) {
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < count; i++) all.add(i);
+        all.sort((a, b) -> Float.compare(scores[b], scores[a]));
+
+        List<Integer> kept = new ArrayList<>();
+        while (!all.isEmpty()) {
+            int best = all.remove(0);
+            kept.add(best);
+            all.removeIf(next -> (classIds == null || classIds[next] == classIds[best])
+                    && calculateIoU(boxes, best, next) > IOU_THRESHOLD);
+        }
+        return kept.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // The old RectF calculateIoU, with width() and height() spelled out
+    private static float calculateIoU(float[] boxes, int a, int b) {
+        float aLeft = boxes[4 * a], aTop = boxes[4 * a + 1], aRight = boxes[4 * a + 2], aBottom = boxes[4 * a + 3];
+        float bLeft = boxes[4 * b], bTop = boxes[4 * b + 1], bRight = boxes[4 * b + 2], bBottom = boxes[4 * b + 3];
+        float intersectionArea = Math.max(0, Math.min(aRight, bRight) - Math.max(aLeft, bLeft)) *
+                Math.max(0, Math.min(aBottom, bBottom) - Math.max(aTop, bTop));
+        float unionArea = ((aRight - aLeft) * (aBottom - aTop)) + ((bRight - bLeft) * (bBottom - bTop)) - intersectionArea;
+        return intersectionArea / unionArea;
+    }
+
+    @Test
+    public void matchesPairwiseLoop() {
+        GridNms nms = new GridNms(INPUT_SIZE);
+        for (int count : new int[] {0, 1, 50, 400, 1500}) {
+            float[] boxes = boxes(count);
+            float[] scores = scores(count);
+            int kept = nms.run(boxes, scores, count, IOU_THRESHOLD);
+            assertArrayEquals("count " + count, pairwise(boxes, scores, null, count),
+                    Arrays.copyOf(nms.getKept(), kept));
+        }
+    }
+
+    @Test
+    public void classAwareMatchesPairwiseLoop() {
+        GridNms nms = new GridNms(INPUT_SIZE, 32);
+        int count = 1500;
+        float[] boxes = boxes(count);
+        float[] scores = scores(count);
+        int[] classIds = new int[count];
+        for (int i = 0; i < count; i++) classIds[i] = random.nextInt(CLASSES);
+
+        int kept = nms.run(boxes, scores, classIds, count, IOU_THRESHOLD);
+        assertArrayEquals(pairwise(boxes, scores, classIds, count), Arrays.copyOf(nms.getKept(), kept));
+    }
+
+    @Test
+    public void reuseAcrossSizesKeepsResults() {
+        GridNms nms = new GridNms(INPUT_SIZE);
+        float[] boxes = boxes(300);
+        float[] scores = scores(300);
+        int first = nms.run(boxes, scores, 300, IOU_THRESHOLD);
+        int[] expected = Arrays.copyOf(nms.getKept(), first);
+
+        nms.run(boxes(2000), scores(2000), 2000, IOU_THRESHOLD);
+        assertEquals(first, nms.run(boxes, scores, 300, IOU_THRESHOLD));
+        assertArrayEquals(expected, Arrays.copyOf(nms.getKept(), first));
+    }
+}
@@ -0,0 +1,108 @@
+package com.google.ar.core.examples.java.vision;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReplayPlayerTest {
+    private static final int FRAME_COUNT = 12;
+    private static final long FRAME_INTERVAL_NS = 33_000_000L;
+
+    private Path file;
+    private FrameRecording recording;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("replay", ".vrec");
+        try (FrameRecorder recorder = new FrameRecorder(file)) {
+            for (int i = 0; i < FRAME_COUNT; i++) {
+                TestFrame frame = new TestFrame(64, 48, 64, 64, 2, i);
+                recorder.write(frame, frame, new float[] {i, 0f, 0f, 0f, 0f, 0f, 1f});
+            }
+        }
+        recording = FrameRecording.open(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        recording.close();
+        Files.delete(file);
+    }
+
+    private static Detector detector() {
+        float[] tensor = YoloOutputDecoderTest.tensor(21L);
+        ByteBuffer tensors = ByteBuffer.allocateDirect(4 * tensor.length).order(ByteOrder.nativeOrder());
+        tensors.asFloatBuffer().put(tensor);
+        int size = YoloOutputDecoderTest.INPUT_SIZE;
+        ReplayEngine engine = new ReplayEngine(new int[] {1, size, size, 3},
+                new int[] {1, YoloOutputDecoderTest.ROWS, YoloOutputDecoderTest.CLASSES + 5}, tensors);
+        List<String> labels = Arrays.asList("a", "b", "c", "d", "e", "f", "g");
+        return new Detector(engine, labels);
+    }
+
+    @Test
+    public void playReadsFramesInOrder() throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        int played = new ReplayPlayer(recording, false).play((index, frame) -> {
+            assertEquals(next.getAndIncrement(), index);
+            assertEquals(index * FRAME_INTERVAL_NS, frame.getTimestampNs());
+            assertEquals(index, frame.getPose()[0], 0f);
+        });
+        assertEquals(FRAME_COUNT, played);
+    }
+
+    @Test
+    public void fullSpeedReplayProcessesEveryFrame() throws InterruptedException {
+        Detector detector = detector();
+        AtomicInteger results = new AtomicInteger();
+        VisionPipeline pipeline = new VisionPipeline(detector, batch -> {
+            if (!batch.isEmpty()) results.incrementAndGet();
+            batch.release();
+        });
+        try {
+            assertEquals(FRAME_COUNT, new ReplayPlayer(recording, false).play(pipeline));
+        } finally {
+            pipeline.shutdown();
+            detector.close();
+        }
+        // play() returned once every frame was released; shutdown() waited for the listener calls
+        assertEquals(FRAME_COUNT, pipeline.getProcessedFrames());
+        assertEquals(0, pipeline.getDroppedFrames());
+        assertEquals(FRAME_COUNT, results.get());
+    }
+
+    @Test
+    public void realTimeReplayKeepsRecordedPace() throws InterruptedException {
+        Detector detector = detector();
+        VisionPipeline pipeline = new VisionPipeline(detector, DetectionBatch::release);
+        long start = System.nanoTime();
+        try {
+            assertEquals(FRAME_COUNT, new ReplayPlayer(recording, true).play(pipeline));
+        } finally {
+            pipeline.shutdown();
+            detector.close();
+        }
+        assertTrue(System.nanoTime() - start >= (FRAME_COUNT - 1) * FRAME_INTERVAL_NS);
+        assertEquals(FRAME_COUNT, pipeline.getProcessedFrames() + pipeline.getDroppedFrames());
+    }
+
+    @Test
+    public void replayIntoShutDownPipelineStops() throws InterruptedException {
+        Detector detector = detector();
+        VisionPipeline pipeline = new VisionPipeline(detector, DetectionBatch::release);
+        pipeline.shutdown();
+        assertEquals(0, new ReplayPlayer(recording, false).play(pipeline));
+        detector.close();
+    }
+}
@@ -0,0 +1,119 @@
+package com.google.ar.core.examples.java.vision;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/** Seeded random YUV_420_888 frame and DEPTH16 image with arbitrary (padded) strides. */
+final class TestFrame implements FrameSource, DepthSource {
+    final int width;
+    final int height;
+    final int yRowStride;
+    final int uvRowStride;
+    final int uvPixelStride;
+    final ByteBuffer yPlane;
+    final ByteBuffer uPlane;
+    final ByteBuffer vPlane;
+    final long timestampNs;
+
+    final int depthWidth;
+    final int depthHeight;
+    final ByteBuffer depth;
+
+    TestFrame(int width, int height, int yRowStride, int uvRowStride, int uvPixelStride, long seed) {
+        Random random = new Random(seed);
+        this.width = width;
+        this.height = height;
+        this.yRowStride = yRowStride;
+        this.uvRowStride = uvRowStride;
+        this.uvPixelStride = uvPixelStride;
+        this.timestampNs = seed * 33_000_000L;
+
+        // The last row of each plane is not padded, like a camera image
+        int chromaWidth = (width + 1) / 2;
+        int chromaHeight = (height + 1) / 2;
+        yPlane = randomBytes(yRowStride * (height - 1) + width, random);
+        int chromaSize = uvRowStride * (chromaHeight - 1) + (chromaWidth - 1) * uvPixelStride + 1;
+        uPlane = randomBytes(chromaSize, random);
+        vPlane = randomBytes(chromaSize, random);
+
+        depthWidth = 40;
+        depthHeight = 30;
+        depth = ByteBuffer.allocateDirect(2 * depthWidth * depthHeight).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < depthWidth * depthHeight; i++) depth.putShort((short) (300 + random.nextInt(7700)));
+        depth.rewind();
+    }
+
+    private static ByteBuffer randomBytes(int size, Random random) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.put(bytes).rewind();
+        return buffer;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long getTimestampNs() {
+        return timestampNs;
+    }
+
+    @Override
+    public ByteBuffer getYPlane() {
+        return yPlane;
+    }
+
+    @Override
+    public ByteBuffer getUPlane() {
+        return uPlane;
+    }
+
+    @Override
+    public ByteBuffer getVPlane() {
+        return vPlane;
+    }
+
+    @Override
+    public int getYRowStride() {
+        return yRowStride;
+    }
+
+    @Override
+    public int getUvRowStride() {
+        return uvRowStride;
+    }
+
+    @Override
+    public int getUvPixelStride() {
+        return uvPixelStride;
+    }
+
+    @Override
+    public int getDepthWidth() {
+        return depthWidth;
+    }
+
+    @Override
+    public int getDepthHeight() {
+        return depthHeight;
+    }
+
+    @Override
+    public int getDepthRowStride() {
+        return 2 * depthWidth;
+    }
+
+    @Override
+    public ByteBuffer getDepthBuffer() {
+        return depth;
+    }
+}
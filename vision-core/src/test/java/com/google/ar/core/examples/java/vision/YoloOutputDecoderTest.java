@@ -0,0 +1,317 @@
+package com.google.ar.core.examples.java.vision;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+public class YoloOutputDecoderTest {
+    // Three heads at 320: 3 * (40 * 40 + 20 * 20 + 10 * 10) anchors
+    static final int INPUT_SIZE = 320;
+    static final int ROWS = 6300;
+    static final int CLASSES = 7;
+    private static final float CONF_THRESHOLD = 0.5f;
+    private static final TensorFormat UINT8 = TensorFormat.quantized(TensorFormat.Type.UINT8, 1f / 255f, 0);
+    private static final TensorFormat INT8 = TensorFormat.quantized(TensorFormat.Type.INT8, 1f / 255f, -128);
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(3);
+
+    @AfterClass
+    public static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    /** YOLOv5 rows, about a tenth of them live, with background objectness spread below it. */
+    static float[] tensor(long seed) {
+        Random random = new Random(seed);
+        int columns = CLASSES + 5;
+        float[] output = new float[ROWS * columns];
+        for (int row = 0, base = 0; row < ROWS; row++, base += columns) {
+            boolean candidate = random.nextInt(10) == 0;
+            output[base] = INPUT_SIZE * random.nextFloat();
+            output[base + 1] = INPUT_SIZE * random.nextFloat();
+            output[base + 2] = 4f + 60f * random.nextFloat();
+            output[base + 3] = 4f + 60f * random.nextFloat();
+            output[base + 4] = candidate ? 0.5f + 0.5f * random.nextFloat() : 0.6f * random.nextFloat();
+            for (int c = 0; c < CLASSES; c++) output[base + 5 + c] = 0.6f * random.nextFloat();
+            if (candidate) output[base + 5 + random.nextInt(CLASSES)] = 0.5f + 0.5f * random.nextFloat();
+        }
+        return output;
+    }
+
+    /** The {@code [1, 4 + classes, rows]} layout of a YOLOv5 tensor, objectness dropped. */
+    private static float[] transposeToV8(float[] v5) {
+        int columns = CLASSES + 5;
+        float[] v8 = new float[ROWS * (CLASSES + 4)];
+        for (int row = 0; row < ROWS; row++) {
+            for (int i = 0; i < 4; i++) v8[i * ROWS + row] = v5[row * columns + i];
+            for (int c = 0; c < CLASSES; c++) v8[(4 + c) * ROWS + row] = v5[row * columns + 5 + c];
+        }
+        return v8;
+    }
+
+    private static YoloOutputDecoder decoder(OutputLayout layout, TensorFormat format, float[] tensor) {
+        YoloOutputDecoder decoder = new YoloOutputDecoder(layout, ROWS, CLASSES, INPUT_SIZE, format);
+        ByteBuffer buffer = decoder.getOutputBuffer();
+        for (float value : tensor) {
+            if (!format.isQuantized()) {
+                buffer.putFloat(value);
+            } else {
+                int q = Math.round(value / format.scale) + format.zeroPoint;
+                buffer.put((byte) (format.type == TensorFormat.Type.UINT8
+                        ? Math.max(0, Math.min(255, q)) : Math.max(-128, Math.min(127, q))));
+            }
+        }
+        return decoder;
+    }
+
+    /** Count, boxes, scores and classes of one decode, copied out of the decoder. */
+    private static final class Result {
+        final float[] boxes;
+        final float[] scores;
+        final int[] classIds;
+
+        Result(YoloOutputDecoder decoder, int count) {
+            this(decoder.getBoxes(), decoder.getScores(), decoder.getClassIds(), count);
+        }
+
+        Result(float[] boxes, float[] scores, int[] classIds, int count) {
+            this.boxes = Arrays.copyOf(boxes, 4 * count);
+            this.scores = Arrays.copyOf(scores, count);
+            this.classIds = Arrays.copyOf(classIds, count);
+        }
+
+        void assertSame(Result other) {
+            assertArrayEquals(boxes, other.boxes, 0f);
+            assertArrayEquals(scores, other.scores, 0f);
+            assertArrayEquals(classIds, other.classIds);
+        }
+
+        // With a candidate cap, ties at the cut may keep different rows but never different scores
+        void assertSameScores(Result other) {
+            float[] a = scores.clone();
+            float[] b = other.scores.clone();
+            Arrays.sort(a);
+            Arrays.sort(b);
+            assertArrayEquals(a, b, 0f);
+        }
+    }
+
+    private static Result decode(YoloOutputDecoder decoder) {
+        return new Result(decoder, decoder.decode(CONF_THRESHOLD));
+    }
+
+    private static Result decode(YoloOutputDecoder decoder, ClassFilter filter) {
+        return new Result(decoder, decoder.decode(CONF_THRESHOLD, HeadFilter.ALL, filter));
+    }
+
+    private static ClassFilter filter() {
+        List<String> labels = Arrays.asList("a", "b", "c", "d", "e", "f", "g");
+        return ClassFilter.forLabels(labels).only("a", "c", "d", "g").withThreshold("c", 0.3f)
+                .withThreshold("g", 0.8f);
+    }
+
+    /**
+     * Plain row-by-row YOLOv5 decode of a float tensor: argmax over the enabled classes, then
+     * objectness and class score both against the winning class's cutoff.
+     */
+    private static Result reference(float[] tensor, ClassFilter filter) {
+        int columns = CLASSES + 5;
+        int[] enabled = filter.enabledClasses(CLASSES);
+
+        float[] boxes = new float[4 * ROWS];
+        float[] scores = new float[ROWS];
+        int[] classIds = new int[ROWS];
+        int count = 0;
+        for (int row = 0, base = 0; row < ROWS; row++, base += columns) {
+            int best = enabled[0];
+            float bestScore = 0f;
+            for (int c : enabled) {
+                if (tensor[base + 5 + c] > bestScore) {
+                    bestScore = tensor[base + 5 + c];
+                    best = c;
+                }
+            }
+            float cutoff = filter.threshold(best, CONF_THRESHOLD);
+            if (tensor[base + 4] < cutoff || bestScore <= cutoff) continue;
+
+            float centerX = tensor[base] * INPUT_SIZE;
+            float centerY = tensor[base + 1] * INPUT_SIZE;
+            float width = tensor[base + 2] * INPUT_SIZE;
+            float height = tensor[base + 3] * INPUT_SIZE;
+            boxes[4 * count] = centerX - width / 2f;
+            boxes[4 * count + 1] = centerY - height / 2f;
+            boxes[4 * count + 2] = centerX + width / 2f;
+            boxes[4 * count + 3] = centerY + height / 2f;
+            scores[count] = bestScore;
+            classIds[count] = best;
+            count++;
+        }
+        return new Result(boxes, scores, classIds, count);
+    }
+
+    @Test
+    public void parallelDecodeMatchesSerial() {
+        for (TensorFormat format : new TensorFormat[] {TensorFormat.FLOAT32, UINT8, INT8}) {
+            for (ClassFilter filter : new ClassFilter[] {ClassFilter.ALL, filter()}) {
+                YoloOutputDecoder decoder = decoder(OutputLayout.YOLO_V5, format, tensor(11L));
+                Result serial = decode(decoder, filter);
+                assertTrue(serial.scores.length > 0);
+
+                decoder.setParallelism(POOL, 256);
+                decode(decoder, filter).assertSame(serial);
+            }
+        }
+    }
+
+    @Test
+    public void parallelV8DecodeMatchesSerial() {
+        float[] v8 = transposeToV8(tensor(17L));
+        for (TensorFormat format : new TensorFormat[] {TensorFormat.FLOAT32, UINT8}) {
+            YoloOutputDecoder decoder = decoder(OutputLayout.YOLO_V8, format, v8);
+            Result serial = decode(decoder, filter());
+            assertTrue(serial.scores.length > 0);
+
+            decoder.setParallelism(POOL, 256);
+            decode(decoder, filter()).assertSame(serial);
+        }
+    }
+
+    @Test
+    public void parallelDecodeWithCapKeepsSameScores() {
+        for (TensorFormat format : new TensorFormat[] {TensorFormat.FLOAT32, UINT8}) {
+            YoloOutputDecoder decoder = decoder(OutputLayout.YOLO_V5, format, tensor(12L));
+            decoder.setMaxCandidates(100);
+            Result serial = decode(decoder, ClassFilter.ALL);
+            assertEquals(100, serial.scores.length);
+
+            decoder.setParallelism(POOL, 256);
+            decode(decoder, ClassFilter.ALL).assertSameScores(serial);
+        }
+    }
+
+    @Test
+    public void prescanMatchesFullScan() {
+        for (TensorFormat format : new TensorFormat[] {TensorFormat.FLOAT32, UINT8, INT8}) {
+            for (ClassFilter filter : new ClassFilter[] {ClassFilter.ALL, filter()}) {
+                for (int maxCandidates : new int[] {0, 100}) {
+                    YoloOutputDecoder decoder = decoder(OutputLayout.YOLO_V5, format, tensor(13L));
+                    decoder.setMaxCandidates(maxCandidates);
+                    Result full = decode(decoder, filter);
+
+                    decoder.setObjectnessPrescan(true);
+                    decode(decoder, filter).assertSame(full);
+
+                    decoder.setParallelism(POOL, 256);
+                    Result parallel = decode(decoder, filter);
+                    if (maxCandidates == 0) {
+                        parallel.assertSame(full);
+                    } else {
+                        parallel.assertSameScores(full);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void classFilterMatchesReference() {
+        float[] tensor = tensor(15L);
+        for (ClassFilter filter : new ClassFilter[] {ClassFilter.ALL, filter()}) {
+            Result expected = reference(tensor, filter);
+            assertTrue(expected.scores.length > 0);
+            decode(decoder(OutputLayout.YOLO_V5, TensorFormat.FLOAT32, tensor), filter).assertSame(expected);
+        }
+    }
+
+    @Test
+    public void classCutoffAppliesToObjectness() {
+        // Row 0: class c (cutoff 0.3) at 0.9 with objectness 0.35 passes;
+        // row 1: class a (default cutoff 0.5) at 0.9 with objectness 0.35 does not
+        float[] tensor = new float[ROWS * (CLASSES + 5)];
+        int columns = CLASSES + 5;
+        for (int row = 0; row < 2; row++) {
+            int base = row * columns;
+            tensor[base] = 100f;
+            tensor[base + 1] = 100f;
+            tensor[base + 2] = 20f;
+            tensor[base + 3] = 20f;
+            tensor[base + 4] = 0.35f;
+            tensor[base + 5 + (row == 0 ? 2 : 0)] = 0.9f;
+        }
+        ClassFilter filter = ClassFilter.forLabels(Arrays.asList("a", "b", "c", "d", "e", "f", "g"))
+                .withThreshold("c", 0.3f);
+        for (TensorFormat format : new TensorFormat[] {TensorFormat.FLOAT32, UINT8, INT8}) {
+            for (boolean prescan : new boolean[] {false, true}) {
+                YoloOutputDecoder decoder = decoder(OutputLayout.YOLO_V5, format, tensor);
+                decoder.setObjectnessPrescan(prescan);
+                Result result = decode(decoder, filter);
+                assertEquals(format + " prescan " + prescan, 1, result.classIds.length);
+                assertEquals(2, result.classIds[0]);
+            }
+        }
+    }
+
+    @Test
+    public void v8ClassFilterMatchesV5() {
+        float[] v5 = tensor(16L);
+        for (int base = 4; base < v5.length; base += CLASSES + 5) v5[base] = 1f;
+        float[] v8 = transposeToV8(v5);
+        ClassFilter filter = filter();
+        decode(decoder(OutputLayout.YOLO_V8, TensorFormat.FLOAT32, v8), filter)
+                .assertSame(decode(decoder(OutputLayout.YOLO_V5, TensorFormat.FLOAT32, v5), filter));
+    }
+
+    @Test
+    public void v8DecodeMatchesV5WithFullObjectness() {
+        // With objectness 1 only the class scores filter, which is all a v8 output has
+        float[] v5 = tensor(14L);
+        for (int base = 4; base < v5.length; base += CLASSES + 5) v5[base] = 1f;
+        float[] v8 = transposeToV8(v5);
+        for (TensorFormat format : new TensorFormat[] {TensorFormat.FLOAT32, UINT8}) {
+            Result expected = decode(decoder(OutputLayout.YOLO_V5, format, v5));
+            assertTrue(expected.scores.length > 0);
+
+            decode(decoder(OutputLayout.YOLO_V8, format, v8)).assertSame(expected);
+        }
+    }
+
+    @Test
+    public void detectUsesClassCount() {
+        assertEquals(OutputLayout.YOLO_V5, OutputLayout.detect(new int[] {1, 25200, 24}, 19));
+        assertEquals(OutputLayout.YOLO_V8, OutputLayout.detect(new int[] {1, 23, 8400}, 19));
+        // Both sides fit 7 classes; the v5 reading wins
+        assertEquals(OutputLayout.YOLO_V5, OutputLayout.detect(new int[] {1, 11, 12}, 7));
+    }
+
+    @Test
+    public void detectFallsBackToShorterSide() {
+        assertEquals(OutputLayout.YOLO_V5, OutputLayout.detect(new int[] {1, 25200, 85}, 0));
+        assertEquals(OutputLayout.YOLO_V8, OutputLayout.detect(new int[] {1, 84, 8400}, 0));
+        // Labels that match neither side do not override the shape
+        assertEquals(OutputLayout.YOLO_V8, OutputLayout.detect(new int[] {1, 84, 8400}, 19));
+    }
+
+    @Test
+    public void detectRejectsOtherShapes() {
+        int[][] shapes = {
+                {25200, 24},      // no batch dimension
+                {2, 25200, 24},   // batch of two
+                {1, 84, 84},      // square, no shorter side
+                {1, 8400, 4},     // box only, no class scores
+                {1, 8400, 5, 1},  // extra dimension
+        };
+        for (int[] shape : shapes) {
+            assertThrows(Arrays.toString(shape), IllegalArgumentException.class,
+                    () -> OutputLayout.detect(shape, 0));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.google.ar.core.examples.java.vision;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class YuvConverterTest {
+
+    // Odd sizes and padded, odd strides; pixel stride 2 (NV21), 1 (I420) and 3 (generic loop).
+    // The golden file holds, frame after frame, the ARGB pixels the float converter produced.
+    private static final TestFrame[] FRAMES = {
+            new TestFrame(37, 23, 41, 43, 2, 1L),
+            new TestFrame(37, 23, 39, 21, 1, 2L),
+            new TestFrame(37, 23, 37, 59, 3, 3L),
+            new TestFrame(64, 48, 64, 64, 2, 4L),
+    };
+    private static final String GOLDEN = "yuv_to_rgb_golden.bin";
+
+    /** ARGB output of the per-pixel float yuvToRgb this converter replaced, for every frame. */
+    private static int[][] golden() throws IOException {
+        InputStream stream = YuvConverterTest.class.getResourceAsStream(GOLDEN);
+        assertNotNull(GOLDEN, stream);
+        try (DataInputStream in = new DataInputStream(stream)) {
+            int[][] pixels = new int[FRAMES.length][];
+            for (int f = 0; f < FRAMES.length; f++) {
+                pixels[f] = new int[FRAMES[f].width * FRAMES[f].height];
+                for (int i = 0; i < pixels[f].length; i++) pixels[f][i] = in.readInt();
+            }
+            assertEquals("trailing golden data", -1, in.read());
+            return pixels;
+        }
+    }
+
+    @Test
+    public void toArgbIsWithinOneOfFloatConverter() throws IOException {
+        int[][] golden = golden();
+        for (int f = 0; f < FRAMES.length; f++) {
+            int[] actual = toArgb(FRAMES[f], 1);
+            for (int i = 0; i < golden[f].length; i++) {
+                assertEquals("alpha", golden[f][i] >>> 24, actual[i] >>> 24);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    int diff = Math.abs(((golden[f][i] >> shift) & 0xFF) - ((actual[i] >> shift) & 0xFF));
+                    assertTrue("frame " + f + " pixel " + i + " differs by " + diff, diff <= 1);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void stripedArgbMatchesSerial() {
+        for (TestFrame frame : FRAMES) {
+            assertArrayEquals(toArgb(frame, 1), toArgb(frame, 4));
+        }
+    }
+
+    @Test
+    public void stripedTensorMatchesSerial() {
+        TensorFormat uint8 = TensorFormat.quantized(TensorFormat.Type.UINT8, 1f / 255f, 0);
+        TensorFormat int8 = TensorFormat.quantized(TensorFormat.Type.INT8, 1f / 255f, -128);
+        for (TensorFormat format : new TensorFormat[] {TensorFormat.FLOAT32, uint8, int8}) {
+            for (TestFrame frame : FRAMES) {
+                assertArrayEquals(format + " stride " + frame.uvPixelStride,
+                        toTensor(frame, format, 1), toTensor(frame, format, 4));
+            }
+        }
+    }
+
+    private static int[] toArgb(TestFrame frame, int stripes) {
+        YuvConverter converter = new YuvConverter();
+        converter.setStripeCount(stripes);
+        int[] out = new int[frame.width * frame.height];
+        converter.toArgb(frame, out);
+        return out;
+    }
+
+    private static byte[] toTensor(TestFrame frame, TensorFormat format, int stripes) {
+        YuvConverter converter = new YuvConverter();
+        converter.setStripeCount(stripes);
+        ModelInput input = new ModelInput(64, format);
+        converter.toTensor(frame, input);
+        return bytes(input.buffer);
+    }
+
+    static byte[] bytes(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate();
+        view.rewind();
+        byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        return bytes;
+    }
+}